@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import screenControl.Background;
+import screenControl.GameScreen;
+
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Consultas de obstáculos del mapa: Background.isFree con un rectángulo (sus
+ * cuatro esquinas), con una celda y con un punto.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BackgroundBenchmark {
+	/** Consultas precalculadas (potencia de 2) */
+	private static final int QUERIES = 1024;
+
+	@Param({"64", "256"})
+	public int size;
+
+	@Param({"0.1", "0.3"})
+	public float density;
+
+	private BenchmarkWorld world;
+	private Background background;
+	private final Rectangle[] bounds = new Rectangle[QUERIES];
+	private final int[] cellX = new int[QUERIES], cellY = new int[QUERIES];
+	private int next;
+
+	@Setup
+	public void setup() {
+		world = new BenchmarkWorld(size, density, 1);
+		background = world.getScene().getBackground();
+		Random random = world.getRandom();
+		float tileSize = GameScreen.tileSize;
+		for(int i = 0; i < QUERIES; i++) {
+			bounds[i] = new Rectangle(random.nextFloat()*(size - 1)*tileSize, random.nextFloat()*(size - 1)*tileSize,
+					tileSize - 2, tileSize - 2);
+			cellX[i] = (int) (bounds[i].x/tileSize);
+			cellY[i] = (int) (bounds[i].y/tileSize);
+		}
+	}
+
+	@Benchmark
+	public boolean isFreeBounds() {
+		return background.isFree(bounds[next++ & (QUERIES - 1)]);
+	}
+
+	@Benchmark
+	public boolean isFreeCell() {
+		int i = next++ & (QUERIES - 1);
+		return background.isFree(bounds[i], cellX[i], cellY[i]);
+	}
+
+	@Benchmark
+	public boolean isFreePoint() {
+		Rectangle rectangle = bounds[next++ & (QUERIES - 1)];
+		return background.isFree(rectangle.x, rectangle.y);
+	}
+
+	@TearDown
+	public void tearDown() {
+		world.dispose();
+	}
+}
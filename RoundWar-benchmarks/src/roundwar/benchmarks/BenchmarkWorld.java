@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar.benchmarks;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+import roundwar.RoundWar;
+import roundwar.Scene;
+import roundwar.SceneCatalog;
+import roundwar.headless.HeadlessApplication;
+import screenControl.GameScreen;
+import Entities.Enemy;
+import Entities.EnemyFollower;
+import Entities.LivingEntity;
+import ProfileSettings.CharacterProfile;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Partida sin ventana sobre un mapa generado, para los benchmarks. El mapa es
+ * cuadrado, con borde de muros, obstáculos sueltos según la densidad pedida, el
+ * jugador en el centro y un único punto de aparición de enemigos en el borde
+ * izquierdo. Todo sale de la semilla, así que cada ejecución mide lo mismo.
+ */
+public class BenchmarkWorld {
+	/** Gids del tileset generado */
+	private static final int WALL = 1, INIT = 2, SPAWN = 3;
+
+	private final File assets;
+	private final GameScreen screen;
+	private final int size;
+	private final Random random;
+	private final Array<Enemy> enemies;
+
+	/**
+	 * Constructor.
+	 * @param size Celdas de cada lado del mapa.
+	 * @param density Fracción de celdas interiores con obstáculo.
+	 * @param seed Semilla del mapa y de la partida.
+	 */
+	public BenchmarkWorld(int size, float density, long seed) {
+		this.size = size;
+		random = new Random(seed);
+		enemies = new Array<Enemy>();
+		try {
+			assets = File.createTempFile("roundwar-bench", "");
+			assets.delete();
+			new File(assets, "background").mkdirs();
+			writeMap(new File(assets, "background/mapTest.tmx"), density);
+			new File(assets, "data").mkdirs();
+			writeScenes(new File(assets, SceneCatalog.PATH));
+		} catch(IOException e) {
+			throw new GdxRuntimeException("Couldn't write benchmark map", e);
+		}
+
+		GdxNativesLoader.load();
+		new HeadlessApplication(800, 450, assets);
+		RoundWar.headless = true;
+		SceneCatalog.load(Gdx.files.internal(SceneCatalog.PATH)); // Los de un mundo anterior tenían otra carpeta
+		screen = new GameScreen(new CharacterProfile(LivingEntity.Type.PIRKO), 0, seed); // Escenario 0: mapTest
+	}
+
+	private void writeMap(File file, float density) throws IOException {
+		Writer out = new FileWriter(file);
+		try {
+			out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+			out.write("<map version=\"1.0\" orientation=\"orthogonal\" width=\"" + size + "\" height=\"" + size
+					+ "\" tilewidth=\"32\" tileheight=\"32\">\n");
+			out.write(" <tileset firstgid=\"1\" name=\"collision\" tilewidth=\"32\" tileheight=\"32\">\n");
+			out.write("  <tile id=\"" + (INIT - 1) + "\"><properties><property name=\"init\" value=\"1\"/></properties></tile>\n");
+			out.write("  <tile id=\"" + (SPAWN - 1) + "\"><properties><property name=\"spawn\" value=\"1\"/></properties></tile>\n");
+			out.write(" </tileset>\n");
+			out.write(" <layer name=\"collision\" width=\"" + size + "\" height=\"" + size + "\">\n");
+			out.write("  <data encoding=\"csv\">\n");
+			int center = size/2;
+			for(int row = 0; row < size; row++) {
+				for(int x = 0; x < size; x++) {
+					int gid = 0;
+					if(row == 0 || x == 0 || row == size - 1 || x == size - 1) {
+						gid = (x == 0 && row == center) ? SPAWN : WALL;
+					} else if(row == center && x == center) {
+						gid = INIT;
+					} else if(x > 2 && (Math.abs(row - center) > 1 || Math.abs(x - center) > 1)) {
+						// Obstáculos salvo alrededor del jugador y junto a la aparición
+						if(random.nextFloat() < density) gid = WALL;
+					}
+					out.write(String.valueOf(gid));
+					if(row < size - 1 || x < size - 1) out.write(',');
+				}
+				out.write('\n');
+			}
+			out.write("  </data>\n");
+			out.write(" </layer>\n");
+			out.write("</map>\n");
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Escribe un único escenario con el mapa generado y una oleada de seguidores.
+	 */
+	private void writeScenes(File file) throws IOException {
+		Writer out = new FileWriter(file);
+		try {
+			out.write("{ \"scenes\": [ { \"name\": \"Test\", \"map\": \"background/mapTest.tmx\",\n");
+			out.write("  \"waves\": [ { \"time\": 5, \"enemies\": [2, 4], \"levels\": [1, 2] } ] } ] }\n");
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Añade enemigos en celdas libres al azar, sin que se solapen.
+	 * @param count Enemigos a añadir.
+	 */
+	public void addEnemies(int count) {
+		Vector2 cell = new Vector2();
+		for(int i = 0, tries = 0; i < count && tries < count*100; tries++) {
+			randomFreeCell(cell);
+			if(cell.x < 3*GameScreen.tileSize) continue; // Deja libre la aparición
+			EnemyFollower enemy = EnemyFollower.obtain(LivingEntity.Type.ENEMY1, cell, 1);
+			if(screen.collidesWithEntity(enemy, cell.x, cell.y) == null) {
+				screen.addEntity(enemy);
+				enemies.add(enemy);
+				i++;
+			} else {
+				enemy.dispose();
+				enemy.free();
+			}
+		}
+	}
+
+	/**
+	 * Pone en cell el centro de una celda sin obstáculo al azar.
+	 */
+	public Vector2 randomFreeCell(Vector2 cell) {
+		Scene scene = GameScreen.getScene();
+		do {
+			cell.set((1 + random.nextInt(size - 2) + 0.5f)*GameScreen.tileSize,
+					(1 + random.nextInt(size - 2) + 0.5f)*GameScreen.tileSize);
+		} while(!scene.isFree(cell.x, cell.y));
+		return cell;
+	}
+
+	/**
+	 * Devuelve la posición del punto de aparición de enemigos.
+	 */
+	public Vector2 getSpawn() {
+		return GameScreen.getScene().getSpawnPoints().get(0);
+	}
+
+	public GameScreen getScreen() {
+		return screen;
+	}
+
+	public Scene getScene() {
+		return GameScreen.getScene();
+	}
+
+	public Array<Enemy> getEnemies() {
+		return enemies;
+	}
+
+	public Random getRandom() {
+		return random;
+	}
+
+	/**
+	 * Libera la partida y borra el mapa y los escenarios generados.
+	 */
+	public void dispose() {
+		screen.dispose();
+		new File(assets, "background/mapTest.tmx").delete();
+		new File(assets, "background").delete();
+		new File(assets, SceneCatalog.PATH).delete();
+		new File(assets, "data").delete();
+		assets.delete();
+	}
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import roundwar.Scene;
+import screenControl.GameScreen;
+import Entities.Enemy;
+import Entities.LivingEntity;
+import Entities.ReturnIntEntity;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Colisiones entre entidades (GameScreen.collides y attackCollides) y
+ * resolución del movimiento (Scene.isFree) con distinto número de enemigos en
+ * un mapa de 128x128 celdas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+	/** Consultas precalculadas (potencia de 2) */
+	private static final int QUERIES = 1024;
+
+	@Param({"10", "100", "1000"})
+	public int entities;
+
+	private BenchmarkWorld world;
+	private GameScreen screen;
+	private Scene scene;
+	private LivingEntity mainpj;
+	private Array<Enemy> enemies;
+	private final float[] deltaX = new float[QUERIES], deltaY = new float[QUERIES];
+	private final float[] pointX = new float[QUERIES], pointY = new float[QUERIES];
+	private final ReturnIntEntity result = new ReturnIntEntity();
+	private int next;
+
+	@Setup
+	public void setup() {
+		world = new BenchmarkWorld(128, 0.1f, 1);
+		world.addEnemies(entities);
+		screen = world.getScreen();
+		scene = world.getScene();
+		mainpj = screen.getCharacter();
+		enemies = world.getEnemies();
+
+		// Pasos de movimiento pequeños, y puntos de ataque: la mitad sobre un enemigo
+		Random random = world.getRandom();
+		for(int i = 0; i < QUERIES; i++) {
+			deltaX[i] = random.nextFloat()*4 - 2;
+			deltaY[i] = random.nextFloat()*4 - 2;
+			if(i % 2 == 0) {
+				Enemy enemy = enemies.get(random.nextInt(enemies.size));
+				pointX[i] = enemy.getCenterX();
+				pointY[i] = enemy.getCenterY();
+			} else {
+				pointX[i] = random.nextFloat()*128*GameScreen.tileSize;
+				pointY[i] = random.nextFloat()*128*GameScreen.tileSize;
+			}
+		}
+	}
+
+	@Benchmark
+	public LivingEntity collides() {
+		int i = next++ & (QUERIES - 1);
+		return screen.collides(enemies.get(i % enemies.size), deltaX[i], deltaY[i]);
+	}
+
+	@Benchmark
+	public LivingEntity attackCollides() {
+		int i = next++ & (QUERIES - 1);
+		return screen.attackCollides(mainpj, pointX[i], pointY[i]);
+	}
+
+	@Benchmark
+	public ReturnIntEntity sceneIsFree() {
+		int i = next++ & (QUERIES - 1);
+		return scene.isFree(enemies.get(i % enemies.size), deltaX[i], deltaY[i], result);
+	}
+
+	@TearDown
+	public void tearDown() {
+		world.dispose();
+	}
+}
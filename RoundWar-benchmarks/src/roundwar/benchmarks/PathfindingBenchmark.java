@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import screenControl.GameScreen;
+import Entities.EnemyFollower;
+import Entities.LivingEntity;
+import PathFinders.FollowPath;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Búsqueda A* de FollowPath entre parejas de celdas libres cercanas, en mapas
+ * de varios tamaños y densidades de obstáculos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PathfindingBenchmark {
+	/** Parejas de origen y destino (potencia de 2) */
+	private static final int PAIRS = 256;
+	/** Distancia máxima entre origen y destino, en celdas */
+	private static final int RANGE = 8;
+
+	@Param({"32", "64", "128"})
+	public int size;
+
+	@Param({"0.1", "0.3"})
+	public float density;
+
+	private BenchmarkWorld world;
+	private FollowPath finder;
+	private LivingEntity[] from, to;
+	private int next;
+
+	@Setup
+	public void setup() {
+		world = new BenchmarkWorld(size, density, 1);
+		finder = new FollowPath();
+		from = new LivingEntity[PAIRS];
+		to = new LivingEntity[PAIRS];
+		Vector2 start = new Vector2();
+		Vector2 end = new Vector2();
+		float range = RANGE*GameScreen.tileSize;
+		for(int i = 0; i < PAIRS; i++) {
+			world.randomFreeCell(start);
+			do {
+				world.randomFreeCell(end);
+			} while(Math.abs(end.x - start.x) > range || Math.abs(end.y - start.y) > range);
+			from[i] = EnemyFollower.obtain(LivingEntity.Type.ENEMY1, start, 1);
+			to[i] = EnemyFollower.obtain(LivingEntity.Type.ENEMY1, end, 1);
+		}
+	}
+
+	@Benchmark
+	public Vector2 findNext() {
+		int i = next++ & (PAIRS - 1);
+		return finder.findNext(from[i], to[i]);
+	}
+
+	@TearDown
+	public void tearDown() {
+		world.dispose();
+	}
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import roundwar.SpawnScheduler;
+import roundwar.Wave;
+import screenControl.GameScreen;
+import Entities.Enemy;
+import Entities.LivingEntity;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Aparición de un enemigo con Wave.spawnEnemies y SpawnScheduler.update
+ * (comprobar qué puntos de aparición están libres, sacarlo del pool,
+ * inicializarlo y añadirlo) con distinto número de enemigos ya en juego. Cada
+ * operación quita después el enemigo aparecido, así que también mide
+ * GameScreen.removeEntity.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpawnBenchmark {
+	@Param({"0", "100", "500"})
+	public int entities;
+
+	private BenchmarkWorld world;
+	private GameScreen screen;
+	private Wave wave;
+	private SpawnScheduler scheduler;
+	private Vector2 spawn;
+	private final Array<LivingEntity> spawned = new Array<LivingEntity>();
+
+	@Setup
+	public void setup() {
+		world = new BenchmarkWorld(64, 0.1f, 1);
+		world.addEnemies(entities);
+		screen = world.getScreen();
+		spawn = world.getSpawn();
+		wave = new Wave(0, Integer.MAX_VALUE, 1, 8); // Seguidores y teletransportadores
+		scheduler = world.getScene().getSpawnScheduler();
+	}
+
+	@Benchmark
+	public int spawnAndRemove() {
+		wave.spawnEnemies(1.5f); // Pasa la espera entre apariciones
+		wave.spawnEnemies(0);
+		scheduler.update();
+		spawned.clear();
+		screen.queryPoint(spawn.x, spawn.y, spawned);
+		for(int i = 0; i < spawned.size; i++) {
+			Enemy enemy = (Enemy) spawned.get(i);
+			screen.removeEntity(enemy);
+			enemy.dispose();
+			enemy.free();
+		}
+		return spawned.size;
+	}
+
+	@TearDown
+	public void tearDown() {
+		world.dispose();
+	}
+}
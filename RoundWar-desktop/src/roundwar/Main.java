@@ -7,6 +7,13 @@ import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
 
 public class Main {
 	public static void main(String[] args) {
+		for(String arg : args) {
+			if(arg.equals("--record")) RoundWar.recordReplays = true; // Graba las partidas en .roundWar/replays
+			if(arg.equals("--profile")) RoundWar.profileFrames = true; // Guarda los tiempos de cada frame en .roundWar/profiles
+			if(arg.equals("--events")) RoundWar.logEvents = true; // Registra los sucesos de las partidas en .roundWar/logs
+			if(arg.equals("--events-console")) RoundWar.logEvents = RoundWar.logEventsToConsole = true;
+		}
+		
 		LwjglApplicationConfiguration cfg = new LwjglApplicationConfiguration();
 		cfg.title = "RoundWar";
 		//cfg.useGL20 = false;
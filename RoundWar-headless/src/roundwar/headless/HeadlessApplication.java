@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar.headless;
+
+import java.io.File;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.Audio;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.LifecycleListener;
+import com.badlogic.gdx.Net;
+import com.badlogic.gdx.Preferences;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Clipboard;
+
+/**
+ * Aplicación sin ventana ni OpenGL. No tiene bucle propio: el simulador avanza
+ * los frames con step. Al crearla se instala en las variables de Gdx, así que
+ * debe crearse antes que cualquier pantalla.
+ */
+public class HeadlessApplication implements Application {
+	private final HeadlessGraphics graphics;
+	private final HeadlessInput input;
+	private final HeadlessFiles files;
+	private final Array<Runnable> runnables, executed;
+	private int logLevel;
+
+	/**
+	 * Constructor.
+	 * @param width Ancho de la pantalla simulada.
+	 * @param height Alto de la pantalla simulada.
+	 * @param assets Carpeta con los assets del juego.
+	 */
+	public HeadlessApplication(int width, int height, File assets) {
+		graphics = new HeadlessGraphics(width, height);
+		input = new HeadlessInput();
+		files = new HeadlessFiles(assets);
+		runnables = new Array<Runnable>();
+		executed = new Array<Runnable>();
+		logLevel = LOG_INFO;
+
+		Gdx.app = this;
+		Gdx.graphics = graphics;
+		Gdx.input = input;
+		Gdx.files = files;
+	}
+
+	/**
+	 * Avanza un frame: actualiza el tiempo y ejecuta lo que se haya pedido con postRunnable.
+	 * @param delta Tiempo simulado del frame (en segundos).
+	 */
+	public void step(float delta) {
+		graphics.update(delta);
+		synchronized(runnables) {
+			executed.addAll(runnables);
+			runnables.clear();
+		}
+		for(int i = 0; i < executed.size; i++) {
+			executed.get(i).run();
+		}
+		executed.clear();
+	}
+
+	@Override
+	public ApplicationListener getApplicationListener() {
+		return null;
+	}
+
+	@Override
+	public Graphics getGraphics() {
+		return graphics;
+	}
+
+	@Override
+	public Audio getAudio() {
+		return null;
+	}
+
+	@Override
+	public Input getInput() {
+		return input;
+	}
+
+	@Override
+	public Files getFiles() {
+		return files;
+	}
+
+	@Override
+	public Net getNet() {
+		return null;
+	}
+
+	@Override
+	public void log(String tag, String message) {
+		if(logLevel >= LOG_INFO) System.out.println(tag + ": " + message);
+	}
+
+	@Override
+	public void log(String tag, String message, Throwable exception) {
+		if(logLevel >= LOG_INFO) {
+			System.out.println(tag + ": " + message);
+			exception.printStackTrace(System.out);
+		}
+	}
+
+	@Override
+	public void error(String tag, String message) {
+		if(logLevel >= LOG_ERROR) System.err.println(tag + ": " + message);
+	}
+
+	@Override
+	public void error(String tag, String message, Throwable exception) {
+		if(logLevel >= LOG_ERROR) {
+			System.err.println(tag + ": " + message);
+			exception.printStackTrace(System.err);
+		}
+	}
+
+	@Override
+	public void debug(String tag, String message) {
+		if(logLevel >= LOG_DEBUG) System.out.println(tag + ": " + message);
+	}
+
+	@Override
+	public void debug(String tag, String message, Throwable exception) {
+		if(logLevel >= LOG_DEBUG) {
+			System.out.println(tag + ": " + message);
+			exception.printStackTrace(System.out);
+		}
+	}
+
+	@Override
+	public void setLogLevel(int logLevel) {
+		this.logLevel = logLevel;
+	}
+
+	@Override
+	public int getLogLevel() {
+		return logLevel;
+	}
+
+	@Override
+	public ApplicationType getType() {
+		return ApplicationType.Desktop;
+	}
+
+	@Override
+	public int getVersion() {
+		return 0;
+	}
+
+	@Override
+	public long getJavaHeap() {
+		return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+	}
+
+	@Override
+	public long getNativeHeap() {
+		return getJavaHeap();
+	}
+
+	@Override
+	public Preferences getPreferences(String name) {
+		return null;
+	}
+
+	@Override
+	public Clipboard getClipboard() {
+		return null;
+	}
+
+	@Override
+	public void postRunnable(Runnable runnable) {
+		synchronized(runnables) {
+			runnables.add(runnable);
+		}
+	}
+
+	@Override
+	public void exit() {
+	}
+
+	@Override
+	public void addLifecycleListener(LifecycleListener listener) {
+	}
+
+	@Override
+	public void removeLifecycleListener(LifecycleListener listener) {
+	}
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar.headless;
+
+import java.io.File;
+
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * Ficheros del modo sin ventana. Los ficheros internos se buscan en la carpeta
+ * de assets que se indique (la del proyecto Android por defecto) y los locales
+ * en la carpeta de trabajo.
+ */
+public class HeadlessFiles implements Files {
+	private final File assets;
+
+	/**
+	 * Constructor.
+	 * @param assets Carpeta con los assets del juego.
+	 */
+	public HeadlessFiles(File assets) {
+		this.assets = assets;
+	}
+
+	@Override
+	public FileHandle getFileHandle(String path, FileType type) {
+		switch(type) {
+			case Internal:
+				return internal(path);
+			case Classpath:
+				return classpath(path);
+			case External:
+				return external(path);
+			case Local:
+				return local(path);
+			default:
+				return absolute(path);
+		}
+	}
+
+	@Override
+	public FileHandle classpath(String path) {
+		return internal(path);
+	}
+
+	@Override
+	public FileHandle internal(String path) {
+		return new FileHandle(new File(assets, path));
+	}
+
+	@Override
+	public FileHandle external(String path) {
+		return new FileHandle(new File(getExternalStoragePath(), path));
+	}
+
+	@Override
+	public FileHandle absolute(String path) {
+		return new FileHandle(new File(path));
+	}
+
+	@Override
+	public FileHandle local(String path) {
+		return new FileHandle(new File(getLocalStoragePath(), path));
+	}
+
+	@Override
+	public String getExternalStoragePath() {
+		return System.getProperty("user.home");
+	}
+
+	@Override
+	public boolean isExternalStorageAvailable() {
+		return true;
+	}
+
+	@Override
+	public String getLocalStoragePath() {
+		return new File("").getAbsolutePath();
+	}
+
+	@Override
+	public boolean isLocalStorageAvailable() {
+		return true;
+	}
+}
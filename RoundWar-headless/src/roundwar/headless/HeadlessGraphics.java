@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar.headless;
+
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.graphics.GL10;
+import com.badlogic.gdx.graphics.GL11;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GLCommon;
+
+/**
+ * Gráficos sin ventana: no hay OpenGL y el tiempo entre frames es el paso que
+ * marque el simulador, no el tiempo real.
+ */
+public class HeadlessGraphics implements Graphics {
+	private final int width, height;
+	private float deltaTime;
+	private int frames;
+
+	/**
+	 * Constructor.
+	 * @param width Ancho de la pantalla simulada.
+	 * @param height Alto de la pantalla simulada.
+	 */
+	public HeadlessGraphics(int width, int height) {
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Avanza un frame.
+	 * @param delta Tiempo simulado del frame (en segundos).
+	 */
+	public void update(float delta) {
+		deltaTime = delta;
+		frames++;
+	}
+
+	/**
+	 * Devuelve los frames simulados.
+	 */
+	public int getFrames() {
+		return frames;
+	}
+
+	@Override
+	public boolean isGL11Available() {
+		return false;
+	}
+
+	@Override
+	public boolean isGL20Available() {
+		return false;
+	}
+
+	@Override
+	public GLCommon getGLCommon() {
+		return null;
+	}
+
+	@Override
+	public GL10 getGL10() {
+		return null;
+	}
+
+	@Override
+	public GL11 getGL11() {
+		return null;
+	}
+
+	@Override
+	public GL20 getGL20() {
+		return null;
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public float getDeltaTime() {
+		return deltaTime;
+	}
+
+	@Override
+	public float getRawDeltaTime() {
+		return deltaTime;
+	}
+
+	@Override
+	public int getFramesPerSecond() {
+		return deltaTime > 0 ? Math.round(1/deltaTime) : 0;
+	}
+
+	@Override
+	public GraphicsType getType() {
+		return GraphicsType.LWJGL;
+	}
+
+	@Override
+	public float getPpiX() {
+		return 96;
+	}
+
+	@Override
+	public float getPpiY() {
+		return 96;
+	}
+
+	@Override
+	public float getPpcX() {
+		return 96/2.54f;
+	}
+
+	@Override
+	public float getPpcY() {
+		return 96/2.54f;
+	}
+
+	@Override
+	public float getDensity() {
+		return 1;
+	}
+
+	@Override
+	public boolean supportsDisplayModeChange() {
+		return false;
+	}
+
+	@Override
+	public DisplayMode[] getDisplayModes() {
+		return new DisplayMode[0];
+	}
+
+	@Override
+	public DisplayMode getDesktopDisplayMode() {
+		return null;
+	}
+
+	@Override
+	public boolean setDisplayMode(DisplayMode displayMode) {
+		return false;
+	}
+
+	@Override
+	public boolean setDisplayMode(int width, int height, boolean fullscreen) {
+		return false;
+	}
+
+	@Override
+	public void setTitle(String title) {
+	}
+
+	@Override
+	public void setVSync(boolean vsync) {
+	}
+
+	@Override
+	public BufferFormat getBufferFormat() {
+		return null;
+	}
+
+	@Override
+	public boolean supportsExtension(String extension) {
+		return false;
+	}
+
+	@Override
+	public void setContinuousRendering(boolean isContinuous) {
+	}
+
+	@Override
+	public boolean isContinuousRendering() {
+		return true;
+	}
+
+	@Override
+	public void requestRendering() {
+	}
+
+	@Override
+	public boolean isFullscreen() {
+		return false;
+	}
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar.headless;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+
+import roundwar.GameRandom;
+import screenControl.GameScreen;
+import Entities.Enemy;
+import Events.ConsoleEventSink;
+import Events.EventLog;
+import Events.GameEvent;
+import Replays.InputReplay;
+
+/**
+ * Lanzador sin ventana. Juega un escenario sin dibujar nada y escribe un
+ * resumen al terminar.
+ *
+ * Opciones: --scene id, --seed semilla de la partida, --seconds máximo de
+ * tiempo simulado, --speed veces el tiempo real (0 = lo más rápido posible),
+ * --tick pasos por segundo, --assets carpeta de assets, --no-bot para no
+ * disparar automáticamente, --record fichero para grabar las órdenes del
+ * jugador, --replay fichero para reproducir una partida grabada (con su
+ * escenario, semilla y personaje) y --events categorías para escribir en la
+ * consola los sucesos de la partida ("all" o una lista separada por comas,
+ * como "damage,death"). --no-lod actualiza a todos los enemigos en cada paso,
+ * estén donde estén, para comparar. --invulnerable hace que el jugador no
+ * muera, para medir el modo sin fin hasta el límite de tiempo. Al reproducir,
+ * estas dos opciones se toman de la grabación.
+ */
+public class Main {
+	public static void main(String[] args) throws FileNotFoundException {
+		int scene = 0;
+		long seed = GameRandom.newSeed();
+		float seconds = -1;
+		float speed = 0;
+		int tickRate = GameScreen.DEFAULT_TICK_RATE;
+		boolean bot = true, invulnerable = false;
+		File assets = new File("../RoundWar-android/assets");
+		File record = null, replay = null;
+		String events = null;
+
+		for(int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if(arg.equals("--no-bot")) bot = false;
+			else if(arg.equals("--no-lod")) Enemy.setDetailLevels(false);
+			else if(arg.equals("--invulnerable")) invulnerable = true;
+			else if(i + 1 >= args.length) usage("Missing value for " + arg);
+			else if(arg.equals("--scene")) scene = Integer.parseInt(args[++i]);
+			else if(arg.equals("--seed")) seed = Long.parseLong(args[++i]);
+			else if(arg.equals("--seconds")) seconds = Float.parseFloat(args[++i]);
+			else if(arg.equals("--speed")) speed = Float.parseFloat(args[++i]);
+			else if(arg.equals("--tick")) tickRate = Integer.parseInt(args[++i]);
+			else if(arg.equals("--assets")) assets = new File(args[++i]);
+			else if(arg.equals("--record")) record = new File(args[++i]);
+			else if(arg.equals("--replay")) replay = new File(args[++i]);
+			else if(arg.equals("--events")) events = args[++i];
+			else usage("Unknown option " + arg);
+		}
+
+		if(events != null) startEvents(events);
+		Simulation simulation;
+		if(replay != null) { // Hasta que se acabe la repetición, salvo que se diga otra cosa
+			simulation = new Simulation(assets, new InputReplay(new FileInputStream(replay)), 800, 450);
+			if(seconds < 0) seconds = Float.MAX_VALUE;
+		} else {
+			simulation = new Simulation(assets, scene, seed, tickRate, 800, 450);
+			simulation.setBot(bot);
+			if(invulnerable) simulation.getScreen().getCharacter().setInvulnerable(true);
+			if(seconds < 0) seconds = 300;
+		}
+		if(record != null) simulation.startRecording(new FileOutputStream(record));
+		simulation.run(seconds, speed);
+		simulation.printReport(System.out);
+		simulation.dispose();
+		EventLog.stop();
+		if(record != null) System.out.println("Recorded:       " + record + " (" + record.length() + " bytes)");
+	}
+
+	/**
+	 * Escribe en la consola los sucesos de las categorías dadas.
+	 */
+	private static void startEvents(String categories) {
+		boolean all = categories.equals("all");
+		EventLog.setEnabled(all);
+		if(!all) {
+			for(String name : categories.split(",")) {
+				try {
+					EventLog.setEnabled(GameEvent.Category.valueOf(name.trim().toUpperCase()), true);
+				} catch(IllegalArgumentException e) {
+					usage("Unknown event category " + name);
+				}
+			}
+		}
+		EventLog.start(new ConsoleEventSink());
+	}
+
+	private static void usage(String error) {
+		System.err.println(error);
+		System.err.println("Usage: Main [--scene id] [--seed seed] [--seconds max] [--speed factor] [--tick rate]"
+				+ " [--assets dir] [--no-bot] [--no-lod] [--invulnerable] [--record file] [--replay file] [--events categories]");
+		System.exit(1);
+	}
+}
@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar.headless;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import roundwar.GameRandom;
+import roundwar.RoundWar;
+import roundwar.SceneCatalog;
+import roundwar.SpawnScheduler;
+import screenControl.EndlessMonitor;
+import screenControl.FrameProfiler;
+import screenControl.FrameProfiler.Phase;
+import screenControl.GameScreen;
+import screenControl.PlayerInput;
+import Entities.Enemy;
+import Entities.LivingEntity;
+import Entities.MainCharacter;
+import ProfileSettings.CharacterProfile;
+import Replays.InputReplay;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+
+/**
+ * Partida sin ventana: crea la pantalla de juego sobre la aplicación sin
+ * OpenGL y avanza la simulación paso a paso, tan rápido como se pueda o a la
+ * velocidad que se pida. Las órdenes del jugador pueden venir de una repetición
+ * o de un jugador automático que dispara al enemigo más cercano.
+ */
+public class Simulation {
+	/** Distancia a la que el jugador automático busca enemigos */
+	private static final float BOT_RANGE = 400;
+	/** Tiempo entre disparos del jugador automático (en segundos) */
+	private static final float BOT_COOLDOWN = 0.5f;
+	/** Cuánto mueve el controlador el jugador automático para girarse hacia el enemigo */
+	private static final float BOT_AIM = 0.1f;
+
+	private final HeadlessApplication app;
+	private final GameScreen screen;
+	private final int sceneId;
+	private final float step;
+	private InputReplay replay;
+	private boolean bot;
+	private float botCooldown;
+	private final Array<LivingEntity> nearby;
+	private long ticks, wallTime;
+
+	/**
+	 * Constructor.
+	 * @param assets Carpeta con los assets del juego (al menos los mapas).
+	 * @param sceneId Id del escenario a jugar.
+	 * @param seed Semilla de la partida.
+	 * @param tickRate Pasos de simulación por segundo.
+	 * @param width Ancho de la pantalla simulada.
+	 * @param height Alto de la pantalla simulada.
+	 */
+	public Simulation(File assets, int sceneId, long seed, int tickRate, int width, int height) {
+		this(assets, sceneId, seed, tickRate, new CharacterProfile(LivingEntity.Type.PIRKO), width, height);
+	}
+
+	/**
+	 * Constructor que reproduce una repetición, con su escenario, semilla,
+	 * personaje y opciones (niveles de detalle e invulnerabilidad).
+	 * @param assets Carpeta con los assets del juego (al menos los mapas).
+	 * @param replay Repetición a reproducir.
+	 * @param width Ancho de la pantalla simulada.
+	 * @param height Alto de la pantalla simulada.
+	 */
+	public Simulation(File assets, InputReplay replay, int width, int height) {
+		this(assets, replay.getSceneId(), replay.getSeed(), replay.getTickRate(), replay.getProfile(), width, height);
+		this.replay = replay;
+		Enemy.setDetailLevels(replay.isDetailLevels());
+		screen.getCharacter().setInvulnerable(replay.isInvulnerable());
+		screen.startReplay(replay);
+	}
+
+	private Simulation(File assets, int sceneId, long seed, int tickRate, CharacterProfile profile,
+			int width, int height) {
+		GdxNativesLoader.load(); // El SpriteBatch del stage usa buffers nativos aunque no se dibuje
+		app = new HeadlessApplication(width, height, assets);
+		RoundWar.headless = true;
+		SceneCatalog.load();
+
+		this.sceneId = sceneId;
+		step = 1f/tickRate;
+		nearby = new Array<LivingEntity>();
+		screen = new GameScreen(profile, sceneId, seed);
+		screen.setTickRate(tickRate);
+		screen.setMaxStepsPerFrame(1);
+		screen.resize(width, height);
+		screen.setPause(false);
+	}
+
+	/**
+	 * Activa o desactiva el jugador automático.
+	 */
+	public void setBot(boolean bot) {
+		this.bot = bot;
+	}
+
+	/**
+	 * Graba las órdenes del jugador de la partida.
+	 */
+	public void startRecording(OutputStream stream) {
+		screen.startRecording(stream);
+	}
+
+	/**
+	 * Avanza la simulación un paso.
+	 * @return Si la partida sigue en juego.
+	 */
+	public boolean step() {
+		if(screen.isFinished()) return false;
+		long start = System.nanoTime();
+		if(bot) updateBot();
+		app.step(step);
+		screen.render(step);
+		ticks++;
+		wallTime += System.nanoTime() - start;
+		return !screen.isFinished() && (replay == null || !replay.isFinished(screen.getTicks()));
+	}
+
+	/**
+	 * Juega hasta que termine la partida o se llegue al tiempo máximo.
+	 * @param maxTime Tiempo máximo de juego simulado (en segundos).
+	 * @param speed Veces el tiempo real a las que se juega, o 0 para ir lo más rápido posible.
+	 */
+	public void run(float maxTime, float speed) {
+		long start = System.nanoTime();
+		while(screen.getTime() < maxTime && step()) {
+			if(speed > 0) {
+				long wait = (long) (ticks*step/speed*1000) - (System.nanoTime() - start)/1000000;
+				if(wait > 0) {
+					try {
+						Thread.sleep(wait);
+					} catch(InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Dispara al enemigo más cercano cuando pasa el tiempo de espera, girándose
+	 * hacia él con el controlador.
+	 */
+	private void updateBot() {
+		PlayerInput input = screen.getInput();
+		input.releaseKnob();
+		botCooldown -= step;
+		if(botCooldown > 0) return;
+		MainCharacter mainpj = screen.getCharacter();
+		float x = mainpj.getCenterX();
+		float y = mainpj.getCenterY();
+		nearby.clear();
+		screen.queryArea(x - BOT_RANGE, y - BOT_RANGE, BOT_RANGE*2, BOT_RANGE*2, nearby);
+		LivingEntity nearest = null;
+		float nearestDistance = Float.MAX_VALUE;
+		for(int i = 0; i < nearby.size; i++) {
+			LivingEntity entity = nearby.get(i);
+			if(entity == mainpj) continue;
+			float dx = entity.getCenterX() - x;
+			float dy = entity.getCenterY() - y;
+			float distance = dx*dx + dy*dy;
+			if(distance < nearestDistance) {
+				nearestDistance = distance;
+				nearest = entity;
+			}
+		}
+		nearby.clear();
+		if(nearest == null) return;
+		float angle = (float) Math.atan2(nearest.getCenterY() - y, nearest.getCenterX() - x);
+		input.setKnob((float) Math.cos(angle)*BOT_AIM, (float) Math.sin(angle)*BOT_AIM);
+		input.basicAttack(nearest.getCenterX(), nearest.getCenterY());
+		botCooldown = BOT_COOLDOWN;
+	}
+
+	/**
+	 * Devuelve la pantalla de juego simulada.
+	 */
+	public GameScreen getScreen() {
+		return screen;
+	}
+
+	/**
+	 * Devuelve los pasos simulados.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Devuelve el tiempo real empleado en simular (en nanosegundos).
+	 */
+	public long getWallTime() {
+		return wallTime;
+	}
+
+	/**
+	 * Escribe el resumen de la partida.
+	 */
+	public void printReport(PrintStream out) {
+		float simulated = screen.getTime();
+		float wall = wallTime/1000000000f;
+		String outcome = !screen.isFinished() ? "time limit" : screen.isWon() ? "won" : "lost";
+		out.println("Scene:          " + sceneId);
+		out.println("Seed:           " + GameRandom.getSeed());
+		out.println("Outcome:        " + outcome);
+		out.println("Ticks:          " + ticks + " (" + screen.getTickRate() + "/s)");
+		out.println("Simulated time: " + String.format("%.2f s", simulated));
+		out.println("Wall time:      " + String.format("%.3f s", wall));
+		out.println("Speedup:        " + (wall > 0 ? String.format("%.1fx", simulated/wall) : "-"));
+		out.println("Average tick:   " + (ticks > 0 ? String.format("%.1f us", wallTime/1000f/ticks) : "-"));
+		out.println("Enemies left:   " + screen.getLeftEnemies());
+		SpawnScheduler spawner = GameScreen.getScene().getSpawnScheduler();
+		out.println("Spawned:        " + spawner.getSpawned() + " (" + spawner.getDeferred() + " ticks waiting for room)");
+		FrameProfiler profiler = screen.getProfiler();
+		Phase[] phases = {Phase.ACT, Phase.SCENE, Phase.PATHS, Phase.FRAME};
+		for(Phase phase : phases) {
+			out.println(String.format("%-16s%.3f / %.3f / %.3f ms (p50 / p95 / p99, last %d frames)",
+					"Phase " + phase.getLabel() + ":", profiler.getPercentile(phase, 0.5f),
+					profiler.getPercentile(phase, 0.95f), profiler.getPercentile(phase, 0.99f),
+					Math.min(profiler.getFrames(), FrameProfiler.HISTORY)));
+		}
+		out.println("Player level:   " + screen.getCharacter().getLevel());
+		EndlessMonitor endless = screen.getEndlessMonitor();
+		if(endless != null) {
+			out.println("Endless:        wave " + GameScreen.getScene().getWaveNumber() + ", peak "
+					+ endless.getPeakEnemies() + " enemies");
+			if(endless.getBreachEnemies() < 0) {
+				out.println(String.format("Frame budget:   %.2f ms never exceeded (p95)", endless.getBudget()));
+			} else {
+				out.println(String.format("Frame budget:   %.2f ms exceeded with %d enemies (wave %d, tick %d, p95 %.2f ms)",
+						endless.getBudget(), endless.getBreachEnemies(), endless.getBreachWave(),
+						endless.getBreachTicks(), endless.getBreachMs()));
+			}
+		}
+		if(replay != null) {
+			MainCharacter mainpj = screen.getCharacter();
+			boolean matches = replay.matches(screen.getTicks(), mainpj.getX(), mainpj.getY(),
+					mainpj.getHealth(), screen.getLeftEnemies());
+			out.println("Replay:         " + (matches ? "matches the recording" : "differs from the recording")
+					+ " (" + replay.getEndTick() + " ticks recorded" + (replay.isDetailLevels() ? "" : ", no-lod")
+					+ (replay.isInvulnerable() ? ", invulnerable" : "") + ")");
+		}
+	}
+
+	/**
+	 * Libera la pantalla de juego.
+	 */
+	public void dispose() {
+		screen.dispose();
+	}
+}
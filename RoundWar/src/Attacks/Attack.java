@@ -5,11 +5,12 @@
  *******************************************************************************/
 package Attacks;
 
+import roundwar.GameAtlas;
+import roundwar.RoundWar;
 import screenControl.GameScreen;
 import Entities.LivingEntity;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 
@@ -28,11 +29,14 @@ public abstract class Attack extends Actor{
     	}
 	}
 	protected static GameScreen game;
-	protected static Texture texAttack;
+	/** Región de los ataques y del ataque básico (del atlas del juego) */
+	protected static TextureRegion attackRegion, basicRegion;
 	protected float damage;
 	protected LivingEntity entity;
 	protected Vector2 actualPos;
 	protected Vector2 finalPos;
+	/** Posición al empezar el último paso de simulación, para interpolar al dibujar */
+	protected Vector2 previousPos;
 	protected float seconds;
 	
 	/**
@@ -41,7 +45,8 @@ public abstract class Attack extends Actor{
 	 */
 	public static void setScreen(GameScreen game) {
 		Attack.game = game;
-		texAttack = new Texture(Gdx.files.internal("images/attacks.png"));
+		attackRegion = RoundWar.headless ? null : GameAtlas.findRegion("images/attacks");
+		basicRegion = RoundWar.headless ? null : GameAtlas.findRegion("touch-knob");
 	}
 	
 	/**
@@ -50,10 +55,52 @@ public abstract class Attack extends Actor{
 	 * @param pos
 	 */
 	public Attack(LivingEntity entity, Vector2 pos) {
+		this();
+		initializeAttack(entity, pos.x, pos.y);
+	}
+	
+	/**
+	 * Crea un ataque sin inicializar, para los pools.
+	 */
+	protected Attack() {
+		actualPos = new Vector2();
+		finalPos = new Vector2();
+		previousPos = new Vector2();
+	}
+	
+	/**
+	 * Inicializa el ataque y lo añade al escenario. Los que vienen de un pool se
+	 * reinicializan con este mismo método.
+	 * @param entity Quien realiza el ataque
+	 * @param posX Hacia donde va el ataque en el eje x
+	 * @param posY Hacia donde va el ataque en el eje y
+	 */
+	protected void initializeAttack(LivingEntity entity, float posX, float posY) {
 		this.entity = entity;
 		game.getStage().addActor(this);
-		actualPos = new Vector2(entity.getCenterX(), entity.getCenterY());
-		finalPos = pos;
+		actualPos.set(entity.getCenterX(), entity.getCenterY());
+		finalPos.set(posX, posY);
+		previousPos.set(actualPos);
+	}
+	
+	/**
+	 * Devuelve la posición x en la que se dibuja, interpolada entre los dos últimos pasos de simulación.
+	 */
+	protected float getDrawX() {
+		return previousPos.x + (actualPos.x - previousPos.x)*game.getAlpha();
+	}
+	
+	/**
+	 * Devuelve la posición y en la que se dibuja, interpolada entre los dos últimos pasos de simulación.
+	 */
+	protected float getDrawY() {
+		return previousPos.y + (actualPos.y - previousPos.y)*game.getAlpha();
+	}
+	
+	/**
+	 * Devuelve el ataque a su pool, si tiene. Se llama cuando ya no está en el juego.
+	 */
+	public void free() {
 	}
 	
 	/**
@@ -67,10 +114,10 @@ public abstract class Attack extends Actor{
 	}
 	
 	/**
-	 * Libera memoria.
+	 * Libera memoria. Las regiones son del atlas del juego, que se libera al cerrarlo.
 	 */
 	public static void dispose() {
-		texAttack.dispose();
+		attackRegion = basicRegion = null;
 	}
 	
 }
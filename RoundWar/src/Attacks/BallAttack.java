@@ -5,17 +5,27 @@
  *******************************************************************************/
 package Attacks;
 
-import screenControl.AbstractScreen;
+import roundwar.GamePool;
 import screenControl.GameScreen;
 import Entities.LivingEntity;
 import Entities.MainCharacter;
+import Events.EventLog;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
-public class BallAttack extends Attack {
+public class BallAttack extends Attack implements Poolable {
+	private static final GamePool<BallAttack> pool = new GamePool<BallAttack>() {
+		@Override
+		protected BallAttack create() {
+			return new BallAttack();
+		}
+	};
     protected TextureRegion currentFrame;
+    /** Región propia para los tipos que usan un trozo de la textura de ataques */
+    private TextureRegion region;
     private int centerX, centerY, size;
     private float rotation;
 	
@@ -27,7 +37,8 @@ public class BallAttack extends Attack {
      * @param type Tipo de ataque
      */
     public BallAttack(LivingEntity entity, float posX, float posY, Type type) {
-		this(entity, new Vector2(posX, posY), type);
+		this();
+		initializeBallAttack(entity, posX, posY, type);
 	}
     
     /**
@@ -37,10 +48,45 @@ public class BallAttack extends Attack {
      * @param type Tipo de ataque
      */
     public BallAttack(LivingEntity entity, Vector2 pos, Type type) {
-    	super(entity, pos);
+    	this();
+    	initializeBallAttack(entity, pos.x, pos.y, type);
+    }
+    
+    /**
+     * Crea un ataque sin inicializar, para el pool.
+     */
+    private BallAttack() {
+    	super();
+    }
+    
+    /**
+     * Saca un ataque del pool y lo inicializa.
+     * @param entity Quien realiza el ataque
+     * @param posX Donde se realiza el ataque en el eje x
+     * @param posY Donde se realiza el ataque en el eje y
+     * @param type Tipo de ataque
+     */
+    public static BallAttack obtain(LivingEntity entity, float posX, float posY, Type type) {
+    	BallAttack attack = pool.obtain();
+    	attack.initializeBallAttack(entity, posX, posY, type);
+    	EventLog.attack(entity, type, posX, posY);
+    	return attack;
+    }
+    
+    /**
+     * Devuelve el pool de estos ataques.
+     */
+    public static GamePool<BallAttack> getPool() {
+    	return pool;
+    }
+    
+    private void initializeBallAttack(LivingEntity entity, float posX, float posY, Type type) {
+    	initializeAttack(entity, posX, posY);
     	inicialiceBallAttack(type);
+    	rotation = 0;
 		actualPos.x -= centerX/2;
 		actualPos.y -= centerY/2;
+		previousPos.set(actualPos);
 		if(entity instanceof MainCharacter) {
 			rotation = entity.getRotation();
 			double radians = Math.toRadians(rotation);
@@ -60,14 +106,16 @@ public class BallAttack extends Attack {
 	    		centerY = 56;
 	    		seconds = (2-(entity.statVel*0.01f)<0.2f)? 0.2f : 2-(entity.statVel*0.01f);
 	    		size = 300;
-	    		currentFrame = new TextureRegion(texAttack, 0, 0, centerX, centerY);
+	    		if(region == null) region = new TextureRegion();
+	    		if(attackRegion != null) region.setRegion(attackRegion, 0, 0, centerX, centerY);
+	    		currentFrame = region;
 	    		damage = 40*entity.statAtq*0.1f;
 	    		break;
 	    	default:
 	    		centerX = centerY = 32;
 	    		seconds = (1-(entity.statVel*0.01f)<0.2f)? 0.2f : 1-(entity.statVel*0.01f);
 	    		size = 150;
-	    		currentFrame = AbstractScreen.getSkin().getRegion("touch-knob");//new TextureRegion(attackTexture, 0, 0, centerX, centerY);
+	    		currentFrame = basicRegion;
 	    		damage = 20*entity.statAtq*0.1f;
 	    	}
     }
@@ -89,6 +137,21 @@ public class BallAttack extends Attack {
 		}
 	}
 	
+	@Override
+	public void free() {
+		pool.free(this);
+	}
+	
+	/**
+	 * Limpia el ataque al volver al pool.
+	 */
+	@Override
+	public void reset() {
+		entity = null;
+		currentFrame = null;
+		clearActions();
+	}
+	
 	/**
 	 * Actualiza el ataque.
 	 */
@@ -97,6 +160,7 @@ public class BallAttack extends Attack {
 		if(seconds < 0) {
 			game.removeAttack(this);
 		} else {
+			previousPos.set(actualPos);
 			actualPos.x += delta*(finalPos.x - actualPos.x)/seconds;
 			actualPos.y += delta*(finalPos.y - actualPos.y)/seconds;
 			seconds -= delta;
@@ -105,10 +169,11 @@ public class BallAttack extends Attack {
 	}
 	
 	/**
-	 * Dibuja el ataque.
+	 * Dibuja el ataque si está a la vista de la cámara.
 	 */
 	@Override
 	public void draw (SpriteBatch batch, float parentAlpha) {
-		batch.draw(currentFrame, actualPos.x, actualPos.y, centerX/2, centerY/2, centerX, centerY, 1, 1, rotation);
+		if(!game.isInView(getDrawX(), getDrawY(), centerX, centerY)) return;
+		batch.draw(currentFrame, getDrawX(), getDrawY(), centerX/2, centerY/2, centerX, centerY, 1, 1, rotation);
 	}
 }
@@ -27,9 +27,16 @@ public abstract class Bar extends Actor {
 		this.maxWidthBar = maxWidthBar;
 		this.maxValue = maxValue;
 		this.value = value;
-		this.widthBar = this.maxWidthBar*(this.value/this.maxValue);
+		this.widthBar = calculateWidth();
 		this.heightBar = heightBar;
 	}
+	
+	/**
+	 * Ancho de la parte llena de la barra, en píxeles enteros.
+	 */
+	private float calculateWidth() {
+		return maxValue > 0 ? Math.round(maxWidthBar*(value/maxValue)) : 0;
+	}
 
 	/**
 	 * Dibuja el fondo de la barra y la superior.
@@ -46,26 +53,23 @@ public abstract class Bar extends Actor {
 	 */
 	public void setMaxValue(float value) {
 		this.maxValue = value;
-		if(this.value > maxValue) value = maxValue;
+		updateValue(this.value);
 	}
 	
 	/**
-	 * Actualiza el valor actual de la barra.
+	 * Actualiza el valor actual de la barra. El ancho sólo cambia si la parte
+	 * llena crece o mengua al menos un píxel.
 	 * @param value
+	 * @return Si ha cambiado el ancho de la barra.
 	 */
-	public void updateValue(float value){
-		if(this.value != value){ //Ha cambiado el valor
-			if (value > maxValue){
-				widthBar = maxWidthBar;
-				this.value = maxValue;
-			} else if (value <= 0){
-				widthBar = 0;
-				this.value = 0;
-			} else {
-				this.value = value;
-				widthBar = maxWidthBar*(value/maxValue);
-			}
-		}
+	public boolean updateValue(float value){
+		if(value > maxValue) value = maxValue;
+		else if(value < 0) value = 0;
+		this.value = value;
+		float width = calculateWidth();
+		if(width == widthBar) return false;
+		widthBar = width;
+		return true;
 	}
 	
 	/**
@@ -84,7 +88,7 @@ public abstract class Bar extends Actor {
 	 */
 	public void resize(float width, float height) {
 		maxWidthBar = width;
-		widthBar = maxWidthBar*(value/maxValue);
+		widthBar = calculateWidth();
 		heightBar = height;
     }
 }
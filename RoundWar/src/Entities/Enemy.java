@@ -5,17 +5,60 @@
  *******************************************************************************/
 package Entities;
 
+import screenControl.GameScreen;
 import PathFinders.PathFinder;
 
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Pool.Poolable;
 
-public class Enemy extends LivingEntity {
+public class Enemy extends LivingEntity implements Poolable {
 	public static enum Ia {FOLLOWER, TELEPORTER}
+	/**
+	 * Nivel de detalle con el que se actualiza un enemigo, según lo lejos que
+	 * esté del personaje principal. Los que no son FULL se actualizan cada
+	 * varios pasos con el tiempo acumulado y sin buscar el fotograma de su
+	 * animación.
+	 */
+	public static enum Detail {
+		/** Cerca: cada paso, como siempre */
+		FULL(1),
+		/** Fuera de la pantalla: cada 2 pasos */
+		REDUCED(2),
+		/** Lejos: cada 6 pasos, moviéndose a saltos de celda en celda */
+		COARSE(6);
+		
+		private final int interval;
+		
+		private Detail(int interval) {
+			this.interval = interval;
+		}
+		
+		/**
+		 * Devuelve cada cuántos pasos de simulación se actualiza.
+		 */
+		public int getInterval() {
+			return interval;
+		}
+	}
+	/**
+	 * Distancias al personaje principal a partir de las que se baja a REDUCED y
+	 * a COARSE. La primera cubre la pantalla entera aunque la cámara no esté
+	 * centrada en el personaje. No dependen de la ventana, para que las
+	 * partidas se repitan igual con cualquier resolución.
+	 */
+	public static final float REDUCED_DISTANCE = 40*GameScreen.tileSize, COARSE_DISTANCE = 64*GameScreen.tileSize;
+	/** Pasos entre dos búsquedas de camino de un enemigo que se actualiza cada paso */
+	protected static final int REPLAN_TICKS = 20;
+	private static boolean detailLevels = true;
 	protected static MainCharacter mainpj;
 	protected Vector2 nextStep;
 	protected PathFinder pathFinder;
 	protected int countDown;
 	protected int experience; // Experiencia que da al morir (entre 1 y 255 * el nivel)
+	protected Detail detail;
+	/** Pasos hasta la siguiente actualización, y pasos y tiempo acumulados desde la anterior */
+	private int detailCountDown, detailTicks;
+	private float detailDelta;
 	
 	/**
 	 * Contructor.
@@ -38,9 +81,122 @@ public class Enemy extends LivingEntity {
 	 * @param lvl
 	 */
 	public Enemy(Type type, float posX, float posY, int lvl) {
-		super(type, lvl);
+		super();
+		initializeEnemy(type, posX, posY, lvl);
+	}
+	
+	/**
+	 * Crea un enemigo sin inicializar, para los pools.
+	 */
+	protected Enemy() {
+		super();
+	}
+	
+	/**
+	 * Inicializa el enemigo. Los que vienen de un pool se reinicializan con este mismo método.
+	 * @param type Tipo de enemigo (Aspecto externo).
+	 * @param posX Posicion en el eje x donde aparece en el mapa.
+	 * @param posY Posicion en el eje y donde aparece en el mapa.
+	 * @param lvl Nivel del enemigo.
+	 */
+	protected void initializeEnemy(Type type, float posX, float posY, int lvl) {
+		initialize(type, 0f, 0f, 0f, lvl);
 		countDown = -1;
+		setVisible(true);
 		setPosition(posX, posY);
+		detail = Detail.FULL;
+		detailCountDown = detailTicks = 0;
+		detailDelta = 0;
+	}
+	
+	/**
+	 * Actualiza al enemigo según su nivel de detalle. El nivel se recalcula en
+	 * cada paso, así que uno que se acerca pasa a actualizarse cada paso en
+	 * cuanto cruza la distancia, con todo el tiempo que llevaba acumulado. Los
+	 * que se alejan reparten sus actualizaciones entre pasos distintos según
+	 * su identificador.
+	 */
+	@Override
+	public void act(float delta) {
+		if(getStage() == null) return; // Ya ha salido del juego en este frame
+		detailTicks++;
+		detailDelta += delta;
+		Detail current = calculateDetail();
+		if(current != detail) {
+			detail = current;
+			detailCountDown = current == Detail.FULL ? 0 : 1 + getEntityId() % current.getInterval();
+		}
+		if(--detailCountDown > 0) return;
+		detailCountDown = detail.getInterval();
+		float elapsed = detailDelta;
+		int ticks = detailTicks;
+		detailDelta = 0;
+		detailTicks = 0;
+		super.act(elapsed);
+		actEnemy(elapsed, ticks);
+	}
+	
+	/**
+	 * Lógica propia de cada tipo de enemigo.
+	 * @param delta Tiempo desde su actualización anterior.
+	 * @param ticks Pasos de simulación desde su actualización anterior (1 salvo con poco detalle).
+	 */
+	protected void actEnemy(float delta, int ticks) {
+	}
+	
+	/**
+	 * Nivel de detalle que le toca según su distancia al personaje principal.
+	 */
+	private Detail calculateDetail() {
+		if(!detailLevels) return Detail.FULL;
+		float deltaX = mainpj.getCenterX() - getCenterX(), deltaY = mainpj.getCenterY() - getCenterY();
+		float distance2 = deltaX*deltaX + deltaY*deltaY;
+		if(distance2 < REDUCED_DISTANCE*REDUCED_DISTANCE) return Detail.FULL;
+		if(distance2 < COARSE_DISTANCE*COARSE_DISTANCE) return Detail.REDUCED;
+		return Detail.COARSE;
+	}
+	
+	/**
+	 * Sólo busca el fotograma de la animación con todo el detalle: con menos no
+	 * se ve, y al volver a FULL se busca el que toque por el tiempo de juego.
+	 */
+	@Override
+	protected void updateFrame() {
+		if(detail == Detail.FULL || currentFrame == null) super.updateFrame();
+	}
+	
+	public Detail getDetail() {
+		return detail;
+	}
+	
+	/**
+	 * Activa o desactiva los niveles de detalle (activados por defecto). Sin
+	 * ellos todos los enemigos se actualizan cada paso. Las repeticiones guardan
+	 * el valor con el que se grabaron.
+	 */
+	public static void setDetailLevels(boolean enabled) {
+		detailLevels = enabled;
+	}
+	
+	public static boolean isDetailLevels() {
+		return detailLevels;
+	}
+	
+	/**
+	 * Devuelve el enemigo a su pool, si tiene. Se llama cuando ya no está en el juego.
+	 */
+	public void free() {
+	}
+	
+	/**
+	 * Limpia el enemigo al volver a su pool.
+	 */
+	@Override
+	public void reset() {
+		countDown = -1;
+		currentFrame = null;
+		detail = Detail.FULL;
+		clearActions();
 	}
 	
 	/**
@@ -51,16 +207,6 @@ public class Enemy extends LivingEntity {
 		Enemy.mainpj = (MainCharacter) enemy;
 	}
 	
-	/**
-	 * Genera un tipo de IA aleatorio según el nivel pasado.
-	 * @param lvl
-	 */
-	public static Ia randomEnemy(int lvl) {
-		if(lvl < 6) return Ia.FOLLOWER;
-		int rand = (int)(Math.random()*5); // Número aleatorio entre 0 y 4
-		return (rand < 2)? Ia.FOLLOWER : Ia.TELEPORTER;
-	}
-
 	/**
 	 * Establece las estadísticas según el nivel y los incrementos por nivel pasados.
 	 * @param incrementAtq
@@ -86,5 +232,6 @@ public class Enemy extends LivingEntity {
 		super.dead(killer);
 		game.removeEntity(this);
 		((MainCharacter)killer).updateExperience(experience);
+		free();
 	}
 }
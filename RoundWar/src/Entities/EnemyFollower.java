@@ -5,10 +5,22 @@
  *******************************************************************************/
 package Entities;
 
-import PathFinders.FollowPath;
+import roundwar.GamePool;
+import roundwar.GameRandom;
+import screenControl.GameScreen;
+import PathFinders.FlowFieldPath;
+import PathFinders.PathListener;
+
 import com.badlogic.gdx.math.Vector2;
 
-public class EnemyFollower extends Enemy {
+public class EnemyFollower extends Enemy implements PathListener {
+	private static final GamePool<EnemyFollower> pool = new GamePool<EnemyFollower>() {
+		@Override
+		protected EnemyFollower create() {
+			return new EnemyFollower();
+		}
+	};
+	private boolean waitingPath;
 
 	/**
 	 * Constructor.
@@ -28,28 +40,90 @@ public class EnemyFollower extends Enemy {
 	 * @param lvl
 	 */
 	public EnemyFollower(Type type, float posX, float posY, int lvl) {
-		super(type, posX, posY, lvl);
+		this();
+		initializeFollower(type, posX, posY, lvl);
+	}
+	
+	/**
+	 * Crea un enemigo sin inicializar, para el pool.
+	 */
+	private EnemyFollower() {
+		super();
+		pathFinder = new FlowFieldPath();
+		nextStep = new Vector2();
+	}
+	
+	/**
+	 * Saca un enemigo del pool y lo inicializa.
+	 * @param type Tipo de enemigo
+	 * @param position Posicion donde se crea
+	 * @param lvl Nivel del enemigo
+	 */
+	public static EnemyFollower obtain(Type type, Vector2 position, int lvl) {
+		EnemyFollower enemy = pool.obtain();
+		enemy.initializeFollower(type, position.x, position.y, lvl);
+		return enemy;
+	}
+	
+	/**
+	 * Devuelve el pool de estos enemigos.
+	 */
+	public static GamePool<EnemyFollower> getPool() {
+		return pool;
+	}
+	
+	private void initializeFollower(Type type, float posX, float posY, int lvl) {
+		initializeEnemy(type, posX, posY, lvl);
 		setCenterPosition(posX, posY);
-		pathFinder = new FollowPath();
-    	nextStep = game.calculeAdyacentCellCenter(getCenterX(), getCenterY(), (int) Math.floor(Math.random()*4));
-    	setRotation(nextStep.angle());
+		waitingPath = false;
+		nextStep.set(game.calculeAdyacentCellCenter(getCenterX(), getCenterY(), GameRandom.get(GameRandom.Stream.AI).nextInt(4)));
+		setRotation(nextStep.angle());
+		savePosition();
+	}
+	
+	@Override
+	public void free() {
+		pool.free(this);
+	}
+	
+	@Override
+	public void reset() {
+		super.reset();
+		waitingPath = false;
 	}
 	
 	/**
-	 * Calcula por el algoritmo A* el centro de la siguiente celda del mapa a la que debe ir
-	 * para perseguir al personaje principal.
+	 * Calcula con el campo de direcciones compartido el centro de la siguiente celda del mapa
+	 * a la que debe ir para perseguir al personaje principal. Si está lejos la búsqueda se pide
+	 * al planificador y mientras tanto sigue hacia su último paso.
 	 */
 	private void calculateNewStep() {
 		float heuristic = (float) (Math.sqrt(Math.pow(mainpj.getCenterX()-getCenterX(), 2) + Math.pow(mainpj.getCenterY()-getCenterY(), 2)));
 		//float heuristic = 50;
 		if(heuristic < 100) {
+			if(waitingPath) {
+				game.getPathScheduler().cancel(this);
+				waitingPath = false;
+			}
+			nextStep.x = mainpj.getCenterX();
+			nextStep.y = mainpj.getCenterY();
+		} else if(!waitingPath) {
+			waitingPath = true;
+			game.getPathScheduler().request(this, mainpj, pathFinder, this);
+		}
+	}
+	
+	/**
+	 * Recibe el siguiente paso calculado por el planificador.
+	 */
+	@Override
+	public void pathFound(Vector2 step) {
+		waitingPath = false;
+		if(step == null) { //Ha tocado al target
 			nextStep.x = mainpj.getCenterX();
 			nextStep.y = mainpj.getCenterY();
 		} else {
-			nextStep = pathFinder.findNext(this, mainpj);
-			if(nextStep == null) { //Ha tocado al target
-				nextStep = new Vector2(mainpj.getCenterX(), mainpj.getCenterY());
-			}
+			nextStep.set(step);
 		}
 	}
 	
@@ -65,11 +139,12 @@ public class EnemyFollower extends Enemy {
 	}
 	
 	/**
-	 * Actualiza al enemigo.
+	 * Actualiza al enemigo. Con poco detalle avanza lo de todos los pasos
+	 * acumulados de una vez; lejos, además, sin girar y comprobando sólo si el
+	 * salto entero está libre.
 	 */
 	@Override
-	public void act (float delta){
-		super.act(delta);
+	protected void actEnemy(float delta, int ticks){
 		float deltaX = 0, deltaY = 0;
 		boolean center = false;
 		
@@ -90,11 +165,35 @@ public class EnemyFollower extends Enemy {
 		} else if(center)
 			countDown=0;
 		
-		if(countDown == 0) { // Comprueba de nuevo su trayectoria cada 20 ticks
+		if(countDown == 0) { // Comprueba de nuevo su trayectoria cada REPLAN_TICKS pasos (más lejos, menos)
 			calculateNewStep();
-			countDown = 20;
-		} else countDown --;
+			countDown = REPLAN_TICKS*detail.getInterval();
+		} else if(countDown > 0) countDown = Math.max(0, countDown - ticks);
+		else countDown --; // Aún no ha llegado a su primer paso
 		
-		moveEntity(deltaX, deltaY, true);
+		if(detail == Detail.COARSE && moveCoarse(deltaX*ticks, deltaY*ticks)) return;
+		moveEntity(deltaX*ticks, deltaY*ticks, true);
+	}
+	
+	/**
+	 * Salta hacia el siguiente paso sin pasarse, si no choca con nada.
+	 * @return Si se ha movido.
+	 */
+	private boolean moveCoarse(float deltaX, float deltaY) {
+		deltaX = clamp(deltaX*statVel, nextStep.x - getCenterX());
+		deltaY = clamp(deltaY*statVel, nextStep.y - getCenterY());
+		if(deltaX == 0 && deltaY == 0) return true;
+		if(!GameScreen.getScene().isFreeCoarse(this, deltaX, deltaY, countDown)) return false;
+		moveFree(deltaX, deltaY);
+		return true;
+	}
+	
+	/**
+	 * Recorta un desplazamiento para no pasar de la distancia que queda.
+	 */
+	private static float clamp(float delta, float remaining) {
+		if(delta > 0) return Math.min(delta, Math.max(remaining, 0));
+		if(delta < 0) return Math.max(delta, Math.min(remaining, 0));
+		return 0;
 	}
 }
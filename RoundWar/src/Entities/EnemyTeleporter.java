@@ -5,6 +5,8 @@
  *******************************************************************************/
 package Entities;
 
+import roundwar.GamePool;
+import roundwar.GameRandom;
 import Attacks.Attack;
 import Attacks.BallAttack;
 import PathFinders.TeleportPath;
@@ -13,6 +15,12 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Vector2;
 
 public class EnemyTeleporter extends Enemy {
+	private static final GamePool<EnemyTeleporter> pool = new GamePool<EnemyTeleporter>() {
+		@Override
+		protected EnemyTeleporter create() {
+			return new EnemyTeleporter();
+		}
+	};
 	float delayAttack, delayAppear, delayDisappear, actualDelay;
 	int mode;
 	Vector2 attackDirection;
@@ -36,13 +44,58 @@ public class EnemyTeleporter extends Enemy {
 	 * @param lvl
 	 */
 	public EnemyTeleporter(Type type, float posX, float posY, int lvl) {
-		super(type, posX, posY, lvl);
+		this();
+		initializeTeleporter(type, posX, posY, lvl);
+	}
+	
+	/**
+	 * Crea un enemigo sin inicializar, para el pool.
+	 */
+	private EnemyTeleporter() {
+		super();
 		pathFinder = new TeleportPath();
+		attackDirection = new Vector2();
+	}
+	
+	/**
+	 * Saca un enemigo del pool y lo inicializa.
+	 * @param type
+	 * @param position
+	 * @param lvl
+	 */
+	public static EnemyTeleporter obtain(Type type, Vector2 position, int lvl) {
+		EnemyTeleporter enemy = pool.obtain();
+		enemy.initializeTeleporter(type, position.x, position.y, lvl);
+		return enemy;
+	}
+	
+	/**
+	 * Devuelve el pool de estos enemigos.
+	 */
+	public static GamePool<EnemyTeleporter> getPool() {
+		return pool;
+	}
+	
+	private void initializeTeleporter(Type type, float posX, float posY, int lvl) {
+		initializeEnemy(type, posX, posY, lvl);
 		if(calculateNewStep()) {
 			setCenterPosition(nextStep);
 		}
-		attackDirection = new Vector2(mainpj.getCenterX(), mainpj.getCenterY());
+		attackDirection.set(mainpj.getCenterX(), mainpj.getCenterY());
 		draw = true;
+		savePosition();
+	}
+	
+	@Override
+	public void free() {
+		pool.free(this);
+	}
+	
+	@Override
+	public void reset() {
+		super.reset();
+		nextStep = null;
+		mode = 0;
 	}
 	
 	/**
@@ -53,9 +106,10 @@ public class EnemyTeleporter extends Enemy {
 			int baseExperience) {
 		super.setStats(incrementAtq, incrementDef, incrementHp, incrementVel, baseExperience);
 		// ToDo: Cambiar delays según estadísticas
-		this.delayAppear = 2 + (int)(Math.random()*6);
-		this.delayAttack = 1 + (int)(Math.random()*4);
-		this.delayDisappear = 2 + (int)(Math.random()*6);
+		GameRandom random = GameRandom.get(GameRandom.Stream.ENEMIES);
+		this.delayAppear = 2 + random.nextInt(6);
+		this.delayAttack = 1 + random.nextInt(4);
+		this.delayDisappear = 2 + random.nextInt(6);
 		this.actualDelay = this.delayAttack;
 		this.mode = 0;
 	}
@@ -70,18 +124,18 @@ public class EnemyTeleporter extends Enemy {
 	}
 	
 	/**
-	 * Actualiza al enemigo.
+	 * Actualiza al enemigo. Sus esperas van por tiempo, así que con poco
+	 * detalle sólo se comprueban menos a menudo.
 	 */
 	@Override
-	public void act (float delta){
-		super.act(delta);
+	protected void actEnemy(float delta, int ticks){
 		switch(mode) {
 			case 0: // Ha aparecido y espera para atacar. Ataca
 				if(actualDelay > 0) actualDelay -= delta;
 				else {
 					actualDelay = delayDisappear;
 					mode = 1;
-					game.attacks.add(new BallAttack(this, attackDirection.x, attackDirection.y, Attack.Type.BASIC));
+					game.attacks.add(BallAttack.obtain(this, attackDirection.x, attackDirection.y, Attack.Type.BASIC));
 				}
 				break;
 			case 1: // Ha atacado y espera para desaparecer. Desaparece
@@ -101,9 +155,11 @@ public class EnemyTeleporter extends Enemy {
 					draw = true;
 					game.addTemporallyEntity(this);
 					setCenterPosition(nextStep);
+					savePosition(); // Aparece directamente, sin interpolar desde donde estaba
 					attackDirection.x = mainpj.getCenterX();
 					attackDirection.y = mainpj.getCenterY();
-					setRotation(new Vector2(getCenterX() - attackDirection.x, getCenterY() - attackDirection.y).angle() + 180);
+					float angle = (float) Math.toDegrees(Math.atan2(getCenterY() - attackDirection.y, getCenterX() - attackDirection.x));
+					setRotation((angle < 0 ? angle + 360 : angle) + 180); // Como Vector2.angle, sin crear el vector
 				}
 				break;
 		}
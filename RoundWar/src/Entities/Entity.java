@@ -7,7 +7,6 @@ package Entities;
 
 import screenControl.GameScreen;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Rectangle;
@@ -17,25 +16,31 @@ import com.badlogic.gdx.scenes.scene2d.Actor;
 public abstract class Entity extends Actor{
 	//Atributos de imagen
 	protected Texture entityTexture;
+	protected EntityAssets assets;
     protected TextureRegion currentFrame;
     protected Rectangle bounds;
+    /** Posición al empezar el último paso de simulación, para interpolar al dibujar */
+    protected float previousX, previousY;
     protected static GameScreen game;
 	
     /**
      * Inicializa la entidad.
      * @param size Tamaño de la entidad
      * @param scale Escala a la que se dibuja
-     * @param path Dirección de su sprite
+     * @param region Nombre de la región de su sprite en el atlas del juego
      * @param rotation Rotación con la que se va a dibujar
      * @param posX Posicion x donde se crea
      * @param posY Posicion y donde se crea
      */
-    protected void initializeEntity(float size, float scale, String path, float rotation, float posX, float posY){
+    protected void initializeEntity(float size, float scale, String region, float rotation, float posX, float posY){
     	setScale(scale);
     	setRotation(rotation);
-    	bounds = new Rectangle(posX, posY, size*scale, size*scale);
+    	if(bounds == null) bounds = new Rectangle();
+    	bounds.set(posX, posY, size*scale, size*scale);
+    	savePosition();
     	
-    	entityTexture = new Texture(Gdx.files.internal(path));
+    	assets = EntityAssets.obtain(region);
+    	entityTexture = assets.getTexture();
     }
     
     /**
@@ -60,6 +65,7 @@ public abstract class Entity extends Actor{
      */
     public void setCenterX(float posX) {
     	bounds.x = posX - bounds.getWidth()/2f;
+    	boundsChanged();
     }
     
     /**
@@ -68,6 +74,7 @@ public abstract class Entity extends Actor{
      */
     public void setCenterY(float posY) {
     	bounds.y = posY - bounds.getHeight()/2f;
+    	boundsChanged();
     }
     
     /**
@@ -85,13 +92,42 @@ public abstract class Entity extends Actor{
     public void setCenterPosition(float posX, float posY) {
     	bounds.x = posX - bounds.getWidth()/2f;
     	bounds.y = posY - bounds.getHeight()/2f;
+    	boundsChanged();
+    }
+    
+    /**
+     * Guarda la posición actual como la del paso anterior. Se llama al empezar cada paso de simulación.
+     */
+    public void savePosition() {
+    	previousX = bounds.x;
+    	previousY = bounds.y;
+    }
+    
+    /**
+     * Devuelve la posición x en la que se dibuja, interpolada entre los dos últimos pasos de simulación.
+     */
+    public float getDrawX() {
+    	return previousX + (bounds.x - previousX)*game.getAlpha();
+    }
+    
+    /**
+     * Devuelve la posición y en la que se dibuja, interpolada entre los dos últimos pasos de simulación.
+     */
+    public float getDrawY() {
+    	return previousY + (bounds.y - previousY)*game.getAlpha();
+    }
+    
+    /**
+     * Se llama cada vez que se mueve el rectángulo de colisión.
+     */
+    protected void boundsChanged() {
     }
     
     /**
      * Libera memoria.
      */
 	public void dispose(){
-		entityTexture.dispose();
+		assets = null; // La textura es compartida, se libera con EntityAssets.disposeAll
 	}
 	
 	/**
@@ -115,20 +151,24 @@ public abstract class Entity extends Actor{
 	@Override
 	public void setPosition(float posX, float posY) {
 		bounds.setPosition(posX, posY);
+		boundsChanged();
 	}
 	
 	public void setPosition(Vector2 position) {
 		bounds.setPosition(position);
+		boundsChanged();
 	}
 	
 	@Override
 	public void setX(float x){
 		bounds.setX(x);
+		boundsChanged();
 	}
 	
 	@Override
 	public void setY(float y){
 		bounds.setY(y);
+		boundsChanged();
 	}
 	
 	@Override
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package Entities;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import roundwar.GameAtlas;
+import roundwar.RoundWar;
+
+/**
+ * Frames y animaciones de un sprite de entidad, compartidos por todas las
+ * entidades del mismo tipo. Los frames son trozos de la región del sprite en
+ * el atlas del juego (GameAtlas). Se crean la primera vez que se piden y se
+ * guardan hasta cerrar la pantalla de juego, así que una oleada nueva no vuelve
+ * a crear nada.
+ */
+public class EntityAssets {
+	private static final int FRAME_COLS = 4;
+	private static final int FRAME_ROWS = 1;
+	private static final ObjectMap<String, EntityAssets> cache = new ObjectMap<String, EntityAssets>();
+
+	private final String region;
+	private final Texture texture;
+	private final TextureRegion[] walkFrames;
+	private final TextureRegion ildeFrame, damageFrame;
+	private final Animation walkAnimation, ildeAnimation, damageAnimation;
+
+	private EntityAssets(String region) {
+		this.region = region;
+		TextureRegion[][] tmp;
+		if(RoundWar.headless) { // Sin OpenGL: frames vacíos, sólo para que las animaciones funcionen
+			texture = null;
+			tmp = new TextureRegion[FRAME_ROWS][FRAME_COLS];
+			for (int j = 0; j < FRAME_COLS; j++) {
+				tmp[0][j] = new TextureRegion();
+			}
+		} else {
+			TextureRegion sheet = GameAtlas.findRegion(region);
+			texture = sheet.getTexture();
+			tmp = sheet.split(sheet.getRegionWidth() / FRAME_COLS, sheet.getRegionHeight() / FRAME_ROWS);
+		}
+		walkFrames = new TextureRegion[FRAME_COLS];
+		ildeFrame = tmp[0][1];
+		damageFrame = tmp[0][1];
+		for (int j = 0; j < FRAME_COLS; j++) {
+			walkFrames[j] = tmp[0][j];
+		}
+		walkAnimation = new Animation(0.4f, walkFrames);
+		ildeAnimation = new Animation(2f, ildeFrame);
+		damageAnimation = new Animation(1f, damageFrame);
+	}
+
+	/**
+	 * Devuelve los recursos del sprite dado, creándolos si es la primera vez.
+	 * @param region Región del sprite en el atlas (la de cada LivingEntity.Type).
+	 */
+	public static EntityAssets obtain(String region) {
+		EntityAssets assets = cache.get(region);
+		if(assets == null) {
+			assets = new EntityAssets(region);
+			cache.put(region, assets);
+		}
+		return assets;
+	}
+
+	/**
+	 * Olvida todos los recursos creados. Las texturas son del atlas del juego,
+	 * que se libera al cerrarlo.
+	 */
+	public static void disposeAll() {
+		cache.clear();
+	}
+
+	/**
+	 * Devuelve el número de sprites cargados.
+	 */
+	public static int getLoaded() {
+		return cache.size;
+	}
+
+	public String getRegion() {
+		return region;
+	}
+
+	public Texture getTexture() {
+		return texture;
+	}
+
+	public TextureRegion[] getWalkFrames() {
+		return walkFrames;
+	}
+
+	public TextureRegion getIldeFrame() {
+		return ildeFrame;
+	}
+
+	public TextureRegion getDamageFrame() {
+		return damageFrame;
+	}
+
+	public Animation getWalkAnimation() {
+		return walkAnimation;
+	}
+
+	public Animation getIldeAnimation() {
+		return ildeAnimation;
+	}
+
+	public Animation getDamageAnimation() {
+		return damageAnimation;
+	}
+}
@@ -6,44 +6,58 @@
 package Entities;
 
 import screenControl.GameScreen;
+import Events.EventLog;
 
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 
 public abstract class LivingEntity extends Entity{ 
 	public enum Status {ILDE, WALK, DISAPEAR, DAMAGE, ATTACKING}
-	//Tipos, el path de su sprite y su id
+	//Tipos, la región de su sprite en el atlas del juego, su id, su tamaño y la escala a la que se dibuja
     public enum Type {
-    	PIRKO("sprite/pirko.png", 0), GULLA("sprite/gulla.png", 1), ENEMY1("sprite/enemy.png", 2);
+    	PIRKO("sprite/pirko", 0, 60, 1f), GULLA("sprite/gulla", 1, 62, 1f), ENEMY1("sprite/enemy", 2, 62, 0.5f);
     	
-    	private String path;
+    	private String region;
     	private int id;
+    	private float size, scale;
     	
-    	private Type(String path, int id){
-    		this.path = path;
+    	private Type(String region, int id, float size, float scale){
+    		this.region = region;
     		this.id = id;
+    		this.size = size;
+    		this.scale = scale;
     	}
     	
     	public int getId() {
     		return id;
     	}
-    	public String getPath() {
-    		return path;
+    	public String getRegion() {
+    		return region;
+    	}
+    	public float getSize() {
+    		return size;
+    	}
+    	public float getScale() {
+    		return scale;
+    	}
+    	/**
+    	 * Devuelve el lado del rectángulo de colisión de las entidades de este tipo.
+    	 */
+    	public float getBoundsSize() {
+    		return size*scale;
     	}
 	}
 	
 	//Animaciones y sprites
-	private static final int FRAME_COLS = 4;
-    private static final int FRAME_ROWS = 1;
     protected boolean upleft, upright, downleft, downright;
     protected float delay, maxDelay; // Tiempo en que no puede recibir daño
     
     protected Animation walkAnimation, ildeAnimation, currentAnimation, damageAnimation;
     protected TextureRegion[] walkFrames;
     protected TextureRegion ildeFrame, damageFrame;
-    protected ShapeRenderer rectangle;
+    /** Resultado de la última comprobación de movimiento, reutilizado en cada paso */
+    private final ReturnIntEntity moveResult = new ReturnIntEntity();
 	
 	//Atributos comunes a todos los tipos
     public int maxMp;
@@ -51,37 +65,60 @@ public abstract class LivingEntity extends Entity{
     public float recoveryMp;
     protected Status status;
     protected int lvl;
+    /** Identificador de esta vida de la entidad, para el registro de sucesos */
+    private int entityId;
+    private static int nextEntityId = 1;
+    /** Último frame en el que GameScreen la ha visto dentro de la cámara */
+    private int viewFrame;
     
     //Atributos únicos según el tipo
     public float statAtq, statHp, statVel, statDef;
     protected float health;
     
     // Constructores
+    /**
+     * Crea una entidad sin inicializar, para los pools. Se inicializa después con initialize.
+     */
+    protected LivingEntity() {
+    }
+    
     public LivingEntity(Type type, int lvl){
     	this(type, 0f, 0f, 0f, lvl);
     }
     
     public LivingEntity(Type type, float rotation, float posX, float posY, int lvl) {
+    	initialize(type, rotation, posX, posY, lvl);
+    }
+    
+    /**
+     * Inicializa la entidad según su tipo. Las entidades que vienen de un pool
+     * se reinicializan con este mismo método.
+     * @param type
+     * @param rotation
+     * @param posX
+     * @param posY
+     * @param lvl
+     */
+    protected void initialize(Type type, float rotation, float posX, float posY, int lvl) {
+    	this.entityId = nextEntityId++;
     	this.lvl = lvl;
     	status = Status.ILDE;
     	delay = 0;
     	maxDelay = 1;
     	status = Status.ILDE;
-    	rectangle = new ShapeRenderer();
-    	rectangle.setColor(0f, 1f, 0f, 0f);
     	switch (type){
 			case ENEMY1:
-				initializeLivingEntity(62, 0.5f, type.getPath(), 0.2f, 0, 30, 0.3f, rotation, posX, posY);
+				initializeLivingEntity(type.getSize(), type.getScale(), type.getRegion(), 0.2f, 0, 30, 0.3f, rotation, posX, posY);
 				((Enemy)this).setStats(0.4f, 0.1f, 5f, 0.01f, 5);
 				break;
 			case PIRKO:
-    			initializeEntity(60, 1f, type.getPath(), getRotation(), 0, 0);
+    			initializeEntity(type.getSize(), type.getScale(), type.getRegion(), getRotation(), 0, 0);
     			break;
     		case GULLA:
-    			initializeEntity(62, 1f, type.getPath(), getRotation(), 0, 0);
+    			initializeEntity(type.getSize(), type.getScale(), type.getRegion(), getRotation(), 0, 0);
     			break;
 			default:
-				initializeEntity(60, 1f, type.getPath(), rotation, posX, posY);
+				initializeEntity(type.getSize(), type.getScale(), type.getRegion(), rotation, posX, posY);
     	}
     	
     	//Animación
@@ -114,14 +151,13 @@ public abstract class LivingEntity extends Entity{
     	maxMp = 100;
     	mp = maxMp;
     	recoveryMp = 0.05f;
-    	rectangle = new ShapeRenderer();
-    	rectangle.setColor(0f, 1f, 0f, 0f);
     }
 
     // Movimiento y colisión
     public void moveFree(float deltaX, float deltaY) {
     	bounds.x += deltaX;
 		bounds.y += deltaY;
+		boundsChanged();
     }
     
     public boolean moveEntity(float deltaX, float deltaY, boolean rotate) {
@@ -129,11 +165,11 @@ public abstract class LivingEntity extends Entity{
 		deltaY = deltaY*statVel;
 		if(deltaX == 0 && deltaY == 0) setStatus(Status.ILDE);
 		else if (status != Status.WALK) setStatus(Status.WALK);
-		ReturnIntEntity returned;
-		if(this instanceof Enemy) returned = GameScreen.getScene().isFree(this, deltaX, deltaY, ((Enemy)this).countDown);
-		else returned = GameScreen.getScene().isFree(this, deltaX, deltaY);
-		int result = returned.getInt();
-		LivingEntity entity = returned.getEntity();
+		if(this instanceof Enemy) GameScreen.getScene().isFree(this, deltaX, deltaY, ((Enemy)this).countDown, moveResult);
+		else GameScreen.getScene().isFree(this, deltaX, deltaY, moveResult);
+		int result = moveResult.getInt();
+		LivingEntity entity = moveResult.getEntity();
+		moveResult.setEntity(null);
     	boolean free = false;
     	
     	if(result == 0 ) { // Se puede mover en ambos ejes
@@ -148,6 +184,8 @@ public abstract class LivingEntity extends Entity{
     		free = true;
     	}
     	
+    	if(free) boundsChanged();
+    	
     	if(entity != null && entity instanceof MainCharacter && !(this instanceof MainCharacter)) // Un enemigo golpea al personaje
 			entity.receiveDamage(this, 1, 40*deltaX, 40*deltaY);
     	return free;
@@ -157,9 +195,11 @@ public abstract class LivingEntity extends Entity{
     public void receiveDamage(LivingEntity entity, float quantity) { // Daño sin retroceso
     	if(delay == 0) {
     		delay = maxDelay;
-    		addHealth(quantity-quantity*(1/(statDef*0.2f)));
-    		System.out.println(this + " ha recibido " + (int)(quantity-quantity*(1/(statDef*0.2f))) + " y su vida ahora es de: " + health);
+    		float damage = quantity-quantity*(1/(statDef*0.2f));
+    		addHealth(damage);
+    		EventLog.damage(this, entity, damage, health);
 	    	if(health <= 0) { // Muerto
+	    		EventLog.death(this, entity);
 	    		dead(entity);
 	    	}
     	}
@@ -182,6 +222,14 @@ public abstract class LivingEntity extends Entity{
     	}
     }
     
+    /**
+     * Avisa a la pantalla de juego para que actualice la rejilla de colisiones.
+     */
+    @Override
+    protected void boundsChanged() {
+    	if(game != null) game.updateEntity(this);
+    }
+    
     /**
      * Si colisiona con una posición.
      * @param posX
@@ -263,6 +311,31 @@ public abstract class LivingEntity extends Entity{
     	}
     }
 	
+	/**
+	 * Devuelve el identificador de la entidad. Las que vienen de un pool tienen uno nuevo cada vez.
+	 */
+	public int getEntityId() {
+		return entityId;
+	}
+	
+	/**
+	 * Vuelve a numerar las entidades desde 1, al empezar una partida.
+	 */
+	public static void resetEntityIds() {
+		nextEntityId = 1;
+	}
+	
+	/**
+	 * Marca el frame en el que está dentro de la cámara.
+	 */
+	public void setViewFrame(int frame) {
+		viewFrame = frame;
+	}
+	
+	public int getViewFrame() {
+		return viewFrame;
+	}
+	
 	public int getLevel() {
 		return lvl;
 	}
@@ -276,22 +349,15 @@ public abstract class LivingEntity extends Entity{
     }
 	
 	/**
-	 * Crea las animaciones.
+	 * Coge las animaciones compartidas por las entidades de su tipo.
 	 */
 	private void setAnimations(){
-    	TextureRegion[][] tmp = TextureRegion.split(entityTexture, entityTexture.getWidth() / 
-    			FRAME_COLS, entityTexture.getHeight() / FRAME_ROWS);
-    	walkFrames = new TextureRegion[FRAME_COLS];
-    	ildeFrame = tmp[0][1];
-    	damageFrame = tmp [0][1];
-    	
-        for (int j = 0; j < FRAME_COLS; j++) {
-                walkFrames[j] = tmp[0][j];
-        }
-    	
-    	walkAnimation = new Animation(0.4f, walkFrames);
-    	ildeAnimation = new Animation(2f, ildeFrame);
-    	damageAnimation = new Animation(1f, damageFrame);
+    	walkFrames = assets.getWalkFrames();
+    	ildeFrame = assets.getIldeFrame();
+    	damageFrame = assets.getDamageFrame();
+    	walkAnimation = assets.getWalkAnimation();
+    	ildeAnimation = assets.getIldeAnimation();
+    	damageAnimation = assets.getDamageAnimation();
     	currentAnimation = ildeAnimation;
     }
 	
@@ -301,6 +367,7 @@ public abstract class LivingEntity extends Entity{
 	 */
     @Override
     public void act(float delta){
+    	savePosition();
     	if(delay > 0) { 
     		setStatus(Status.DAMAGE);
     		delay -= delta;
@@ -312,15 +379,23 @@ public abstract class LivingEntity extends Entity{
     	if(mp < maxMp){
     		((MainCharacter)this).addMp(1*recoveryMp);
     	}
+    	updateFrame();
+    }
+    
+    /**
+     * Busca el fotograma de la animación actual que toca dibujar.
+     */
+    protected void updateFrame() {
     	currentFrame = currentAnimation.getKeyFrame(game.getTime(), true);
     }
     
     /**
-     * Dibuja la entidad.
+     * Dibuja la entidad si está a la vista de la cámara.
      */
     @Override
 	public void draw(SpriteBatch batch, float parentAlpha){
-        batch.draw(currentFrame, bounds.x, bounds.y, bounds.getWidth()/2, bounds.getHeight()/2, 
+    	if(!game.isInView(this)) return;
+        batch.draw(currentFrame, getDrawX(), getDrawY(), bounds.getWidth()/2, bounds.getHeight()/2, 
         		bounds.getWidth(), bounds.getHeight(), 1, 1, getRotation());
     }
     
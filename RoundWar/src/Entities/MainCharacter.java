@@ -5,9 +5,10 @@
  *******************************************************************************/
 package Entities;
 
-import screenControl.Hud;
+import screenControl.HudModel;
 import Attacks.Attack;
 import Attacks.BallAttack;
+import Events.EventLog;
 import ProfileSettings.CharacterProfile;
 
 import com.badlogic.gdx.math.Vector2;
@@ -18,6 +19,10 @@ public class MainCharacter extends LivingEntity {
 	private int totalExp, nextLevelExp;
 	private Experience upExp;
 	private CharacterProfile profile;
+	/** Lo que muestra el hud del personaje */
+	private final HudModel hudModel;
+	/** Si al morir recupera la vida en lugar de perder (para las pruebas de carga) */
+	private boolean invulnerable;
 	
 	/** 
 	 * Contructor.
@@ -40,6 +45,13 @@ public class MainCharacter extends LivingEntity {
     	mp 		= profile.getMaxMp();
     	recoveryMp = profile.getRecoveryMp();
     	
+    	hudModel = new HudModel();
+    	hudModel.setMaxHealth(statHp);
+    	hudModel.setHealth(health);
+    	hudModel.setMaxMana(maxMp);
+    	hudModel.setMana(mp);
+    	hudModel.setLevel(lvl);
+    	
 		//range = new RangeAttack(this);
 	}
 	
@@ -84,21 +96,35 @@ public class MainCharacter extends LivingEntity {
 	}
 	
 	/**
-	 * Cambia la vida del personaje y actualiza la barra.
+	 * Cambia la vida del personaje. La barra se actualiza al dibujar el hud.
 	 */
 	@Override
 	public void addHealth(float update) {
 		super.addHealth(update);
-		Hud.updateHealthBar(health);
+		hudModel.setHealth(health);
 	}
 	
 	/**
-	 * Cambia el maná del personaje y actualiza la barra.
+	 * Cambia el maná del personaje. La barra se actualiza al dibujar el hud.
 	 */
 	@Override
 	public void addMp(float update) {
 		super.addMp(update);
-		Hud.updateManaBar(mp);
+		hudModel.setMana(mp);
+	}
+	
+	/**
+	 * Devuelve el perfil del personaje.
+	 */
+	public CharacterProfile getProfile() {
+		return profile;
+	}
+	
+	/**
+	 * Devuelve los valores del personaje que muestra el hud.
+	 */
+	public HudModel getHudModel() {
+		return hudModel;
 	}
 	
 	/**
@@ -121,8 +147,9 @@ public class MainCharacter extends LivingEntity {
 		profile.updateLvl();
 		lvl++;
 		calculateExperienceNextLevel();
-		Hud.updateLevel(lvl);
+		hudModel.setLevel(lvl);
 		profile.updateLeftPoints(1);
+		EventLog.levelUp(this, lvl);
 	}
 	
 	/**
@@ -191,7 +218,7 @@ public class MainCharacter extends LivingEntity {
 	 */
 	public void doBasicAttack(Vector2 finalPos) {
 		if(mp >= Attack.Type.BASIC.getCost()) {
-			game.attacks.add(new BallAttack(this, finalPos, Attack.Type.BASIC));
+			game.attacks.add(BallAttack.obtain(this, finalPos.x, finalPos.y, Attack.Type.BASIC));
 			addMp(Attack.Type.BASIC.getCost());
 		}
 	}
@@ -202,7 +229,7 @@ public class MainCharacter extends LivingEntity {
 	 */
 	public void doAttack1() {
 		if(mp >= Attack.Type.ARROW.getCost()) {
-			game.attacks.add(new BallAttack(this, 500, 200, Attack.Type.ARROW));
+			game.attacks.add(BallAttack.obtain(this, 500, 200, Attack.Type.ARROW));
 			addMp(-Attack.Type.ARROW.getCost());
 		}
 	}
@@ -247,14 +274,29 @@ public class MainCharacter extends LivingEntity {
 	}
 
 	/**
-	 * Muere el personaje y pierde la partida.
+	 * Muere el personaje y pierde la partida. Si es invulnerable recupera toda la vida y sigue.
 	 */
 	@Override
 	public void dead(LivingEntity killer) {
+		if(invulnerable) {
+			addHealth(statHp);
+			return;
+		}
 		game.loseGame();
 		super.dead(killer);
 	}
 	
+	/**
+	 * Hace que el personaje no pueda morir, para medir partidas largas del modo sin fin.
+	 */
+	public void setInvulnerable(boolean invulnerable) {
+		this.invulnerable = invulnerable;
+	}
+	
+	public boolean isInvulnerable() {
+		return invulnerable;
+	}
+	
 	/**
 	 * Guarda los datos.
 	 */
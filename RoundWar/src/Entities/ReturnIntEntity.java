@@ -19,6 +19,23 @@ public class ReturnIntEntity {
 		this.result = result;
 	}
 	
+	/**
+	 * Crea un resultado vacío para reutilizarlo.
+	 */
+	public ReturnIntEntity() {
+		this(0, null);
+	}
+	
+	/**
+	 * Cambia el entero y la entidad.
+	 * @return Este mismo objeto.
+	 */
+	public ReturnIntEntity set(int result, LivingEntity entity) {
+		this.result = result;
+		this.entity = entity;
+		return this;
+	}
+	
 	public LivingEntity getEntity() {
 		return entity;
 	}
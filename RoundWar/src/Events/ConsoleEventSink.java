@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package Events;
+
+import roundwar.RoundWar;
+
+import com.badlogic.gdx.Gdx;
+
+/**
+ * Escribe los sucesos en la consola de depuración (el log de la aplicación).
+ */
+public class ConsoleEventSink implements EventSink {
+	@Override
+	public void write(CharSequence line) {
+		Gdx.app.log(RoundWar.LOG, line.toString());
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void close() {
+	}
+}
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package Events;
+
+import java.io.IOException;
+
+import roundwar.RoundWar;
+import Attacks.Attack;
+import Entities.LivingEntity;
+import Events.GameEvent.Category;
+
+import com.badlogic.gdx.Gdx;
+
+/**
+ * Registro de sucesos de la partida (daño, muertes, apariciones, subidas de
+ * nivel y ataques). El hilo del juego rellena sucesos de un anillo creado de
+ * antemano, sin crear objetos ni escribir nada, y un hilo aparte los vacía
+ * hacia un EventSink. Si el anillo se llena, los sucesos nuevos se descartan
+ * y se cuentan.
+ *
+ * Sin empezar (start) o con la categoría desactivada, registrar un suceso no
+ * hace nada.
+ */
+public class EventLog {
+	/** Sucesos que caben en el anillo (potencia de 2) */
+	public static final int CAPACITY = 4096;
+	/** Espera del hilo que escribe cuando no hay sucesos (en milisegundos) */
+	private static final long IDLE_MS = 20;
+
+	private static final GameEvent[] events = new GameEvent[CAPACITY];
+	private static final boolean[] enabled = new boolean[Category.values().length];
+	/** Siguiente suceso a rellenar y siguiente a escribir. Sólo los cambia su hilo. */
+	private static volatile long head, tail;
+	private static volatile boolean running;
+	private static EventSink sink;
+	private static Thread writer;
+	private static int tick;
+	private static long dropped;
+
+	static {
+		for(int i = 0; i < CAPACITY; i++) {
+			events[i] = new GameEvent();
+		}
+		setEnabled(true);
+	}
+
+	private EventLog() {
+	}
+
+	/**
+	 * Empieza a registrar sucesos y a escribirlos en sink desde otro hilo.
+	 */
+	public static synchronized void start(EventSink sink) {
+		stop();
+		EventLog.sink = sink;
+		head = tail = 0;
+		dropped = 0;
+		running = true;
+		writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				drain();
+			}
+		}, "RoundWar events");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Deja de registrar sucesos, escribe los pendientes y cierra el sink.
+	 */
+	public static synchronized void stop() {
+		if(writer == null) return;
+		running = false;
+		try {
+			writer.join();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		writer = null;
+		if(dropped > 0) Gdx.app.log(RoundWar.LOG, "Event log dropped " + dropped + " events");
+	}
+
+	public static boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Activa o desactiva una categoría de sucesos.
+	 */
+	public static void setEnabled(Category category, boolean enable) {
+		enabled[category.ordinal()] = enable;
+	}
+
+	/**
+	 * Activa o desactiva todas las categorías.
+	 */
+	public static void setEnabled(boolean enable) {
+		for(int i = 0; i < enabled.length; i++) {
+			enabled[i] = enable;
+		}
+	}
+
+	public static boolean isEnabled(Category category) {
+		return running && enabled[category.ordinal()];
+	}
+
+	/**
+	 * Paso de simulación con el que se marcan los sucesos siguientes.
+	 */
+	public static void setTick(int tick) {
+		EventLog.tick = tick;
+	}
+
+	/**
+	 * Devuelve los sucesos descartados por tener el anillo lleno.
+	 */
+	public static long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * Una entidad recibe daño.
+	 * @param target Quien lo recibe.
+	 * @param source Quien lo causa.
+	 * @param damage Vida perdida (negativa).
+	 * @param health Vida que le queda.
+	 */
+	public static void damage(LivingEntity target, LivingEntity source, float damage, float health) {
+		GameEvent event = claim(Category.DAMAGE, target, source);
+		if(event == null) return;
+		event.value = damage;
+		event.amount = health;
+		publish();
+	}
+
+	/**
+	 * Muere una entidad.
+	 */
+	public static void death(LivingEntity entity, LivingEntity killer) {
+		if(claim(Category.DEATH, entity, killer) != null) publish();
+	}
+
+	/**
+	 * Aparece una entidad.
+	 */
+	public static void spawn(LivingEntity entity) {
+		GameEvent event = claim(Category.SPAWN, entity, null);
+		if(event == null) return;
+		event.x = entity.getCenterX();
+		event.y = entity.getCenterY();
+		event.value = entity.getLevel();
+		publish();
+	}
+
+	/**
+	 * Una entidad sube de nivel.
+	 */
+	public static void levelUp(LivingEntity entity, int level) {
+		GameEvent event = claim(Category.LEVEL_UP, entity, null);
+		if(event == null) return;
+		event.value = level;
+		publish();
+	}
+
+	/**
+	 * Una entidad lanza un ataque.
+	 */
+	public static void attack(LivingEntity entity, Attack.Type type, float x, float y) {
+		GameEvent event = claim(Category.ATTACK, entity, null);
+		if(event == null) return;
+		event.attack = type;
+		event.x = x;
+		event.y = y;
+		publish();
+	}
+
+	/**
+	 * Devuelve el siguiente suceso a rellenar, o null si la categoría no se
+	 * registra o el anillo está lleno.
+	 */
+	private static GameEvent claim(Category category, LivingEntity target, LivingEntity source) {
+		if(!running || !enabled[category.ordinal()]) return null;
+		if(head - tail >= CAPACITY) {
+			dropped++;
+			return null;
+		}
+		GameEvent event = events[(int) (head & (CAPACITY - 1))];
+		event.set(category, tick, target, source);
+		return event;
+	}
+
+	/**
+	 * Deja el último suceso rellenado a la vista del hilo que escribe.
+	 */
+	private static void publish() {
+		head = head + 1;
+	}
+
+	/**
+	 * Bucle del hilo que escribe: vacía el anillo hasta que se para y no queda nada.
+	 */
+	private static void drain() {
+		StringBuilder line = new StringBuilder(128);
+		try {
+			while(true) {
+				boolean stopping = !running;
+				long end = head;
+				for(long i = tail; i < end; i++) {
+					line.setLength(0);
+					events[(int) (i & (CAPACITY - 1))].appendTo(line);
+					sink.write(line);
+					tail = i + 1;
+				}
+				sink.flush();
+				if(stopping) break;
+				Thread.sleep(IDLE_MS);
+			}
+		} catch(IOException e) {
+			Gdx.app.error(RoundWar.LOG, "Event log failed", e);
+			running = false;
+		} catch(InterruptedException e) {
+			running = false;
+		}
+		try {
+			sink.close();
+		} catch(IOException e) {
+			Gdx.app.error(RoundWar.LOG, "Couldn't close event log", e);
+		}
+	}
+}
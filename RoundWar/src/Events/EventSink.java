@@ -0,0 +1,25 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package Events;
+
+import java.io.IOException;
+
+/**
+ * Destino de las líneas de EventLog. Sólo se usa desde el hilo que escribe.
+ */
+public interface EventSink {
+	/**
+	 * Escribe una línea (sin el salto de línea).
+	 */
+	public void write(CharSequence line) throws IOException;
+
+	/**
+	 * Se llama cada vez que se vacía el buffer de sucesos.
+	 */
+	public void flush() throws IOException;
+
+	public void close() throws IOException;
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package Events;
+
+import Attacks.Attack;
+import Entities.LivingEntity;
+
+/**
+ * Un suceso de la partida. EventLog tiene todos creados de antemano y los
+ * reutiliza: el hilo del juego rellena los campos y el hilo que escribe los
+ * convierte en una línea de texto.
+ */
+public class GameEvent {
+	public enum Category {
+		/** Una entidad recibe daño (value: daño, amount: vida que le queda) */
+		DAMAGE,
+		/** Una entidad muere (source: quien la mata) */
+		DEATH,
+		/** Aparece una entidad */
+		SPAWN,
+		/** El personaje sube de nivel (value: nivel nuevo) */
+		LEVEL_UP,
+		/** Una entidad lanza un ataque hacia (x, y) */
+		ATTACK
+	}
+
+	Category category;
+	int tick;
+	/** Entidad a la que le pasa y la que lo causa (id 0 si no hay) */
+	Class<?> targetClass, sourceClass;
+	String targetName, sourceName;
+	int targetId, sourceId;
+	float value, amount, x, y;
+	Attack.Type attack;
+
+	GameEvent() {
+	}
+
+	void set(Category category, int tick, LivingEntity target, LivingEntity source) {
+		this.category = category;
+		this.tick = tick;
+		targetClass = target == null ? null : target.getClass();
+		targetName = target == null ? null : target.getName();
+		targetId = target == null ? 0 : target.getEntityId();
+		sourceClass = source == null ? null : source.getClass();
+		sourceName = source == null ? null : source.getName();
+		sourceId = source == null ? 0 : source.getEntityId();
+		value = amount = x = y = 0;
+		attack = null;
+	}
+
+	/**
+	 * Escribe el suceso en una línea (sin el salto de línea).
+	 */
+	void appendTo(StringBuilder line) {
+		line.append(tick).append(' ').append(category.name());
+		appendEntity(line, " ", targetClass, targetName, targetId);
+		switch(category) {
+			case DAMAGE:
+				line.append(" damage=").append(value).append(" health=").append(amount);
+				appendEntity(line, " by=", sourceClass, sourceName, sourceId);
+				break;
+			case DEATH:
+				appendEntity(line, " by=", sourceClass, sourceName, sourceId);
+				break;
+			case SPAWN:
+				line.append(" x=").append(x).append(" y=").append(y).append(" level=").append((int) value);
+				break;
+			case LEVEL_UP:
+				line.append(" level=").append((int) value);
+				break;
+			case ATTACK:
+				line.append(' ').append(attack).append(" x=").append(x).append(" y=").append(y);
+				break;
+		}
+	}
+
+	private static void appendEntity(StringBuilder line, String prefix, Class<?> type, String name, int id) {
+		if(type == null) return;
+		line.append(prefix).append(name != null ? name : type.getSimpleName()).append('#').append(id);
+	}
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package Events;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * Escribe los sucesos en name.log dentro de una carpeta. Cuando el fichero
+ * pasa de un tamaño se renombra a name.1.log (y el anterior a name.2.log,
+ * etc.) y se empieza otro, guardando como mucho un número de ficheros.
+ */
+public class RotatingFileEventSink implements EventSink {
+	public static final long DEFAULT_MAX_BYTES = 1024*1024;
+	public static final int DEFAULT_FILES = 5;
+
+	private final FileHandle dir;
+	private final String name;
+	private final long maxBytes;
+	private final int files;
+	private Writer writer;
+	private long written;
+	private char[] chars = new char[256];
+
+	/**
+	 * Constructor.
+	 * @param dir Carpeta de los ficheros.
+	 * @param name Nombre de los ficheros, sin extensión.
+	 * @param maxBytes Tamaño a partir del cual se empieza otro fichero (aproximado, en caracteres).
+	 * @param files Ficheros que se guardan contando el actual.
+	 */
+	public RotatingFileEventSink(FileHandle dir, String name, long maxBytes, int files) {
+		this.dir = dir;
+		this.name = name;
+		this.maxBytes = maxBytes;
+		this.files = Math.max(1, files);
+	}
+
+	public RotatingFileEventSink(FileHandle dir, String name) {
+		this(dir, name, DEFAULT_MAX_BYTES, DEFAULT_FILES);
+	}
+
+	@Override
+	public void write(CharSequence line) throws IOException {
+		if(writer == null) open();
+		int length = line.length();
+		if(chars.length < length + 1) chars = new char[(length + 1)*2];
+		for(int i = 0; i < length; i++) {
+			chars[i] = line.charAt(i);
+		}
+		chars[length] = '\n';
+		writer.write(chars, 0, length + 1);
+		written += length + 1;
+		if(written >= maxBytes) rotate();
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if(writer != null) writer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(writer != null) writer.close();
+		writer = null;
+	}
+
+	private FileHandle file(int index) {
+		return dir.child(index == 0 ? name + ".log" : name + "." + index + ".log");
+	}
+
+	private void open() {
+		FileHandle current = file(0);
+		written = current.exists() ? current.length() : 0;
+		writer = new BufferedWriter(current.writer(true, "UTF-8"));
+	}
+
+	/**
+	 * Cierra el fichero actual y desplaza los anteriores, borrando el más antiguo.
+	 */
+	private void rotate() throws IOException {
+		close();
+		file(files - 1).delete();
+		for(int i = files - 2; i >= 0; i--) {
+			FileHandle file = file(i);
+			if(file.exists()) file.moveTo(file(i + 1));
+		}
+		open();
+	}
+}
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package PathFinders;
+
+import java.util.Arrays;
+
+import Entities.LivingEntity;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Buscador de caminos que comparte un único campo de direcciones hacia el
+ * objetivo entre todas sus instancias. El campo se calcula con Dijkstra
+ * (todos los pasos cuestan lo mismo, así que es un recorrido en anchura) desde
+ * la celda del objetivo y sólo se recalcula cuando el objetivo cambia de celda,
+ * de modo que cada enemigo obtiene su siguiente celda con una consulta.
+ * Si hay hilos de búsqueda, el campo nuevo se calcula en uno de ellos sobre un
+ * segundo búfer y mientras tanto se sigue usando el anterior; se pasa a usar el
+ * nuevo en el paso en el que el servicio entrega el trabajo.
+ */
+public class FlowFieldPath extends PathFinder {
+	/** Valor del campo para las celdas desde las que no se llega al objetivo */
+	private static final byte NONE = -1;
+
+	/** Campo que se consulta y búfer donde se calcula el siguiente */
+	private static Field front, back;
+	/** Trabajo que calcula el campo en un hilo de búsqueda */
+	private static BuildJob buildJob;
+	/** Si hay un cálculo en marcha en un hilo de búsqueda */
+	private static boolean building;
+
+	public FlowFieldPath() {
+		super();
+	}
+
+	/**
+	 * Devuelve el centro de la celda a la que debe ir la entidad para acercarse al objetivo,
+	 * o null si ya está en su celda o no puede llegar a él.
+	 */
+	@Override
+	public Vector2 findNext(LivingEntity entity, LivingEntity entityTarget) {
+		int cellX = (int)(entity.getCenterX()/tilesize);
+		int cellY = (int)(entity.getCenterY()/tilesize);
+		int finalCellX = (int)(entityTarget.getCenterX()/tilesize);
+		int finalCellY = (int)(entityTarget.getCenterY()/tilesize);
+
+		nodesExpanded = 0;
+		if(front == null || front.grid != grid) { // Mapa nuevo, el primer campo se calcula ya
+			front = new Field(grid);
+			back = new Field(grid);
+			building = false;
+			nodesExpanded = front.build(finalCellX, finalCellY);
+		} else if(finalCellX != front.originX || finalCellY != front.originY) {
+			if(service == null) {
+				nodesExpanded = back.build(finalCellX, finalCellY);
+				swap();
+			} else if(!building) {
+				// Uno por servicio: el de una partida anterior puede seguir en su hilo
+				if(buildJob == null || buildJob.service != service || buildJob.pending) buildJob = new BuildJob();
+				buildJob.set(grid, back, finalCellX, finalCellY);
+				building = true;
+				service.submit(buildJob);
+			}
+		}
+		if(!grid.contains(cellX, cellY)) {
+			return null;
+		}
+
+		byte dir = front.direction[grid.index(cellX, cellY)];
+		if(dir == NONE) {
+			return null;
+		}
+		return cellToVector(cellX + NavGrid.DIR_X[dir], cellY + NavGrid.DIR_Y[dir]);
+	}
+
+	/**
+	 * Devuelve la distancia en pasos desde una celda hasta el objetivo, o -1 si no se puede llegar.
+	 */
+	public static int getDistance(int cellX, int cellY) {
+		if(front == null || front.grid != grid || !grid.contains(cellX, cellY)) {
+			return -1;
+		}
+		return front.distance[grid.index(cellX, cellY)];
+	}
+
+	/**
+	 * Pasa a consultar el campo recién calculado.
+	 */
+	private static void swap() {
+		Field aux = front;
+		front = back;
+		back = aux;
+	}
+
+	/**
+	 * Olvida el campo calculado.
+	 */
+	public static void reset() {
+		front = back = null;
+		building = false;
+	}
+
+	/**
+	 * Campo de direcciones calculado desde una celda.
+	 */
+	private static class Field {
+		final NavGrid grid;
+		/** Dirección hacia el objetivo de cada celda */
+		final byte[] direction;
+		/** Distancia en pasos hasta el objetivo de cada celda */
+		final int[] distance;
+		/** Cola del recorrido */
+		final int[] queue;
+		/** Celda desde la que se calculó el campo */
+		int originX = -1, originY = -1;
+
+		Field(NavGrid grid) {
+			this.grid = grid;
+			direction = new byte[grid.size()];
+			distance = new int[grid.size()];
+			queue = new int[grid.size()];
+		}
+
+		/**
+		 * Calcula el campo desde la celda dada.
+		 * @return Número de celdas visitadas.
+		 */
+		int build(int finalCellX, int finalCellY) {
+			originX = finalCellX;
+			originY = finalCellY;
+			Arrays.fill(direction, NONE);
+			Arrays.fill(distance, -1);
+			if(!grid.contains(finalCellX, finalCellY)) {
+				return 0;
+			}
+
+			// La celda del objetivo se recorre aunque sea un obstáculo (p.e. la de inicio del jugador).
+			// El borde de la rejilla está bloqueado, así que no hace falta comprobar límites.
+			int head = 0, tail = 0;
+			int origin = grid.index(finalCellX, finalCellY);
+			queue[tail++] = origin;
+			distance[origin] = 0;
+			while(head < tail) {
+				int cell = queue[head++];
+				for(int dir = 0; dir < 8; dir++) {
+					int next = cell + grid.neighbour(dir);
+					if(!grid.isWalkable(next) || distance[next] >= 0) {
+						continue;
+					}
+					// No se cortan esquinas: en diagonal sólo si ambas celdas laterales están libres
+					if((dir & 1) == 1 && (!grid.isWalkable(cell + grid.neighbour(dir - 1))
+							|| !grid.isWalkable(cell + grid.neighbour((dir + 1) % 8)))) {
+						continue;
+					}
+					distance[next] = distance[cell] + grid.getCost(next);
+					direction[next] = (byte) ((dir + 4) % 8); // Apunta de vuelta hacia la celda actual
+					queue[tail++] = next;
+				}
+			}
+			return tail;
+		}
+	}
+
+	/**
+	 * Calcula el siguiente campo en un hilo de búsqueda y lo pone en uso al entregarse.
+	 */
+	private static class BuildJob extends PathJob {
+		private Field field;
+		private int originX, originY;
+
+		void set(NavGrid grid, Field field, int originX, int originY) {
+			this.grid = grid;
+			this.field = field;
+			this.originX = originX;
+			this.originY = originY;
+		}
+
+		@Override
+		protected void compute() {
+			field.build(originX, originY);
+		}
+
+		@Override
+		protected void deliver() {
+			if(field == back && field.grid == PathFinder.grid) { // No se ha cambiado de mapa mientras tanto
+				swap();
+				building = false;
+			}
+			field = null;
+		}
+	}
+}
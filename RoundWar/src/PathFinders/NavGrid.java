@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package PathFinders;
+
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+
+/**
+ * Rejilla de navegación del mapa guardada en arrays de bytes. Tiene un borde de
+ * una celda bloqueada alrededor del mapa, así que los vecinos de cualquier
+ * celda del mapa siempre son índices válidos y los bucles no comprueban
+ * límites. No cambia una vez creada, por lo que varias búsquedas pueden leerla
+ * a la vez.
+ */
+public class NavGrid {
+	/** Desplazamientos de las 8 direcciones */
+	public static final int[] DIR_X = { 0, 1, 1, 1, 0, -1, -1, -1 };
+	public static final int[] DIR_Y = { 1, 1, 0, -1, -1, -1, 0, 1 };
+
+	/** Tamaño del mapa en celdas */
+	private final int width, height;
+	/** Ancho de una fila incluyendo el borde */
+	private final int stride;
+	/** 1 si se puede pasar por la celda, 0 si no */
+	private final byte[] walkable;
+	/** Coste de entrar en la celda */
+	private final byte[] cost;
+	/** Diferencia de índice con cada uno de los 8 vecinos */
+	private final int[] neighbours;
+
+	/**
+	 * Crea la rejilla a partir de la capa de colisión: las celdas con tile son obstáculos.
+	 * @param layer Capa de colisión del mapa.
+	 */
+	public NavGrid(TiledMapTileLayer layer) {
+		this.width = layer.getWidth();
+		this.height = layer.getHeight();
+		this.stride = width + 2;
+		this.walkable = new byte[stride*(height + 2)];
+		this.cost = new byte[stride*(height + 2)];
+		this.neighbours = new int[8];
+		for(int dir = 0; dir < 8; dir++) {
+			neighbours[dir] = DIR_Y[dir]*stride + DIR_X[dir];
+		}
+		for(int x = 0; x < width; x++) {
+			for(int y = 0; y < height; y++) {
+				if(layer.getCell(x, y) == null) {
+					walkable[index(x, y)] = 1;
+					cost[index(x, y)] = 1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Devuelve el índice de una celda del mapa.
+	 */
+	public int index(int x, int y) {
+		return (y + 1)*stride + x + 1;
+	}
+
+	/**
+	 * Devuelve la coordenada x en el mapa de un índice.
+	 */
+	public int cellX(int index) {
+		return index % stride - 1;
+	}
+
+	/**
+	 * Devuelve la coordenada y en el mapa de un índice.
+	 */
+	public int cellY(int index) {
+		return index / stride - 1;
+	}
+
+	/**
+	 * Si la celda está dentro del mapa.
+	 */
+	public boolean contains(int x, int y) {
+		return x >= 0 && y >= 0 && x < width && y < height;
+	}
+
+	/**
+	 * Si se puede pasar por la celda con el índice dado.
+	 */
+	public boolean isWalkable(int index) {
+		return walkable[index] != 0;
+	}
+
+	/**
+	 * Si se puede pasar por la celda dada. Fuera del mapa no se puede.
+	 */
+	public boolean isWalkable(int x, int y) {
+		return contains(x, y) && walkable[index(x, y)] != 0;
+	}
+
+	/**
+	 * Devuelve el coste de entrar en la celda con el índice dado.
+	 */
+	public int getCost(int index) {
+		return cost[index];
+	}
+
+	/**
+	 * Devuelve la diferencia de índice con el vecino en la dirección dada (0 a 7).
+	 */
+	public int neighbour(int dir) {
+		return neighbours[dir];
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Devuelve el número de índices, borde incluido.
+	 */
+	public int size() {
+		return walkable.length;
+	}
+}
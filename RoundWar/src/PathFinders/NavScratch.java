@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package PathFinders;
+
+import java.util.Arrays;
+
+/**
+ * Memoria de trabajo de una búsqueda A* sobre una NavGrid. Cada búsqueda que
+ * se quiera ejecutar a la vez que otras necesita la suya. Los estados abierto y
+ * cerrado se marcan con el número de búsqueda, así que no hay que limpiar nada
+ * entre búsquedas.
+ */
+public class NavScratch {
+	/** Número de búsqueda y bit de cerrado de cada celda: (búsqueda << 1) | cerrado */
+	private final int[] stamp;
+	/** Coste desde el inicio */
+	final int[] cost;
+	/** Coste total estimado (coste + heurística) */
+	final float[] total;
+	/** Índice de la celda desde la que se llegó */
+	final int[] parent;
+	/** Profundidad de la celda en la búsqueda */
+	final short[] depth;
+	/** Posición en el montículo de abiertos, -1 si no está */
+	private final int[] heapIndex;
+	/** Montículo binario de abiertos ordenado por coste total */
+	private int[] heap;
+	private int heapSize;
+	/** Número de búsqueda actual */
+	private int search;
+	/** Nodos expandidos en la última búsqueda */
+	int expanded;
+
+	/**
+	 * Constructor.
+	 * @param grid Rejilla sobre la que se buscará.
+	 */
+	public NavScratch(NavGrid grid) {
+		int size = grid.size();
+		stamp = new int[size];
+		cost = new int[size];
+		total = new float[size];
+		parent = new int[size];
+		depth = new short[size];
+		heapIndex = new int[size];
+		heap = new int[64];
+	}
+
+	/**
+	 * Si se puede usar para buscar en la rejilla dada.
+	 */
+	public boolean fits(NavGrid grid) {
+		return stamp.length == grid.size();
+	}
+
+	/**
+	 * Devuelve los nodos expandidos en la última búsqueda.
+	 */
+	public int getExpanded() {
+		return expanded;
+	}
+
+	/**
+	 * Empieza una búsqueda nueva.
+	 */
+	void begin() {
+		if(search == (Integer.MAX_VALUE >> 1)) { // Las marcas volverían a empezar
+			Arrays.fill(stamp, 0);
+			search = 0;
+		}
+		search++;
+		heapSize = 0;
+		expanded = 0;
+	}
+
+	/**
+	 * Si la celda ya se ha alcanzado en esta búsqueda.
+	 */
+	boolean isReached(int index) {
+		return (stamp[index] >>> 1) == search;
+	}
+
+	/**
+	 * Si la celda está abierta en esta búsqueda.
+	 */
+	boolean isOpen(int index) {
+		return stamp[index] == (search << 1);
+	}
+
+	/**
+	 * Si la celda está cerrada en esta búsqueda.
+	 */
+	boolean isClosed(int index) {
+		return stamp[index] == ((search << 1) | 1);
+	}
+
+	/**
+	 * Abre una celda o, si ya estaba abierta, la sube en el montículo tras bajar su coste.
+	 */
+	void open(int index) {
+		if(isOpen(index)) {
+			up(heapIndex[index]);
+			return;
+		}
+		stamp[index] = search << 1;
+		if(heapSize == heap.length) {
+			int[] bigger = new int[heapSize*2];
+			System.arraycopy(heap, 0, bigger, 0, heapSize);
+			heap = bigger;
+		}
+		heap[heapSize] = index;
+		heapIndex[index] = heapSize;
+		up(heapSize++);
+	}
+
+	/**
+	 * Devuelve la celda abierta con menor coste total sin sacarla.
+	 */
+	int peek() {
+		return heap[0];
+	}
+
+	/**
+	 * Saca la celda abierta con menor coste total y la marca como cerrada.
+	 */
+	int close() {
+		int first = heap[0];
+		heapIndex[first] = -1;
+		stamp[first] = (search << 1) | 1;
+		heapSize--;
+		if(heapSize > 0) {
+			heap[0] = heap[heapSize];
+			heapIndex[heap[0]] = 0;
+			down(0);
+		}
+		return first;
+	}
+
+	/**
+	 * Número de celdas abiertas.
+	 */
+	int openSize() {
+		return heapSize;
+	}
+
+	private void up(int pos) {
+		int index = heap[pos];
+		float value = total[index];
+		while(pos > 0) {
+			int parentPos = (pos - 1) >> 1;
+			if(value >= total[heap[parentPos]]) {
+				break;
+			}
+			heap[pos] = heap[parentPos];
+			heapIndex[heap[pos]] = pos;
+			pos = parentPos;
+		}
+		heap[pos] = index;
+		heapIndex[index] = pos;
+	}
+
+	private void down(int pos) {
+		int index = heap[pos];
+		float value = total[index];
+		while(true) {
+			int child = (pos << 1) + 1;
+			if(child >= heapSize) {
+				break;
+			}
+			if(child + 1 < heapSize && total[heap[child + 1]] < total[heap[child]]) {
+				child++;
+			}
+			if(total[heap[child]] >= value) {
+				break;
+			}
+			heap[pos] = heap[child];
+			heapIndex[heap[pos]] = pos;
+			pos = child;
+		}
+		heap[pos] = index;
+		heapIndex[index] = pos;
+	}
+}
@@ -17,34 +17,26 @@ public class PathFinder {
 	/** The layer being searched */
 	protected static TiledMapTileLayer layer;
 	protected static int tilesize;
-	/** The complete set of nodes across the map */
-	protected static Node[][] nodes;
+	/** The navigation grid of the map */
+	protected static NavGrid grid;
+	/** Hilos de búsqueda, null si se busca en el hilo de juego */
+	protected static PathService service;
+	/** Number of nodes expanded by the last search */
+	protected int nodesExpanded;
 	
 	public PathFinder() { }
 	
-	/**
-	 * Coge las celdas del mapa y las pone como nodos de valor -1 o 1 según si son obstáculos o no.
-	 */
-	private static void setNodes() {
-		if(nodes == null) {
-			nodes = new Node[getLayer().getWidth()][getLayer().getHeight()];
-			for (int i=0; i<getLayer().getWidth(); i++) {
-				for (int j=0; j<getLayer().getHeight(); j++) {
-					nodes[i][j] = new Node(i,j);
-					if(getLayer().getCell(i, j) == null) {
-						nodes[i][j].cost = 1;
-					} else {
-						nodes[i][j].cost = -1;
-					}
-				}
-			}
-		}
-	}
-	
 	public Vector2 findNext(LivingEntity entity, LivingEntity entityTarget) {
 		return null;
 	}
 	
+	/**
+	 * Devuelve el número de nodos expandidos en la última búsqueda.
+	 */
+	public int getNodesExpanded() {
+		return nodesExpanded;
+	}
+	
 	/**
 	 * Get the heuristic cost for the given location. This determines in which 
 	 * order the locations are processed.
@@ -57,18 +49,20 @@ public class PathFinder {
 	 * @return The heuristic cost assigned to the tile
 	 */
 	public float getHeuristicCost(int x, int y, int finalX, int finalY) {
-		return (float) Math.sqrt(Math.pow(finalX-x, 2) + Math.pow(finalY-y, 2));
+		return (float) Math.sqrt((finalX-x)*(finalX-x) + (finalY-y)*(finalY-y));
 	}
 	
-	protected Vector2 nodeToVector(Node node) {
-		if(node != null)
-			return new Vector2((node.x*tilesize) + tilesize/2, 
-				(node.y*tilesize) + tilesize/2);
-		return null;
+	/**
+	 * Devuelve el centro de una celda.
+	 */
+	public static Vector2 cellToVector(int cellX, int cellY) {
+		return new Vector2((cellX*tilesize) + tilesize/2, (cellY*tilesize) + tilesize/2);
 	}
 	
 	public static void dispose() {
-		nodes = null;
+		grid = null;
+		FlowFieldPath.reset();
+		FollowPath.reset();
 	}
 	
 	public static void setScreen(GameScreen screen) {
@@ -78,12 +72,34 @@ public class PathFinder {
 	public static void setLayer(TiledMapTileLayer layer) {
 		PathFinder.layer = layer;
 		PathFinder.tilesize = (int) layer.getTileWidth();
-		PathFinder.setNodes();
+		if(grid == null) grid = new NavGrid(layer);
+	}
+	
+	/**
+	 * Pone los hilos de búsqueda que se usarán, o null para buscar en el hilo de juego.
+	 */
+	public static void setService(PathService service) {
+		PathFinder.service = service;
+	}
+	
+	public static PathService getService() {
+		return service;
+	}
+	
+	public static int getTileSize() {
+		return tilesize;
 	}
 	
 	public static TiledMapTileLayer getLayer() {
 		return layer;
 	}
+	
+	/**
+	 * Devuelve la rejilla de navegación del mapa.
+	 */
+	public static NavGrid getGrid() {
+		return grid;
+	}
 
 	public Vector2 getNode(float posX, float posY, int addX, int addY) {
 		Vector2 node = new Vector2((int)(posX/tilesize) + addX, (int)(posY/tilesize) + addY);
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package PathFinders;
+
+import roundwar.RoundWar;
+
+import com.badlogic.gdx.Gdx;
+
+/**
+ * Trabajo de búsqueda que se ejecuta en un hilo del PathService. Sólo debe
+ * leer la rejilla que recibe (que no cambia) y escribir en sus propios campos;
+ * el resultado se entrega después en el hilo de juego. Un trabajo no se puede
+ * volver a mandar hasta que se ha entregado, pero sí reutilizar después.
+ */
+public abstract class PathJob implements Runnable {
+	/** Rejilla sobre la que se busca */
+	protected NavGrid grid;
+	/** Servicio al que se mandó por última vez */
+	PathService service;
+	/** Si se entrega en un paso fijo (dueTick) en lugar de al terminar */
+	boolean ordered;
+	int dueTick;
+	/** Si está mandado y aún sin entregar. Sólo lo usa el hilo de juego. */
+	boolean pending;
+	/** Si el hilo ha terminado el cálculo */
+	private boolean done;
+
+	/**
+	 * Hace la búsqueda. Se llama desde un hilo del servicio.
+	 */
+	protected abstract void compute();
+
+	/**
+	 * Entrega el resultado. Se llama desde el hilo de juego.
+	 */
+	protected abstract void deliver();
+
+	/**
+	 * Prepara el trabajo para mandarlo. Se llama desde el hilo de juego.
+	 */
+	synchronized void start(PathService service, boolean ordered, int dueTick) {
+		this.service = service;
+		this.ordered = ordered;
+		this.dueTick = dueTick;
+		pending = true;
+		done = false;
+	}
+
+	/**
+	 * Hace el cálculo en un hilo del servicio y, si no va en orden, lo deja en
+	 * la cola de terminados.
+	 */
+	@Override
+	public final void run() {
+		try {
+			compute();
+		} catch(RuntimeException e) {
+			Gdx.app.error(RoundWar.LOG, "Path search failed", e);
+		}
+		boolean queue;
+		synchronized(this) {
+			done = true;
+			queue = !ordered;
+			notifyAll();
+		}
+		if(queue) service.completed(this);
+	}
+
+	/**
+	 * Espera a que el hilo termine el cálculo, aunque se interrumpa el hilo de juego.
+	 */
+	synchronized void await() {
+		boolean interrupted = false;
+		while(!done) {
+			try {
+				wait();
+			} catch(InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if(interrupted) Thread.currentThread().interrupt();
+	}
+}
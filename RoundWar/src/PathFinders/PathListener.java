@@ -0,0 +1,19 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package PathFinders;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Recibe el resultado de una petición hecha al PathScheduler.
+ */
+public interface PathListener {
+	/**
+	 * Se llama cuando se ha atendido la petición.
+	 * @param step Centro de la siguiente celda a la que ir, o null si no hay camino.
+	 */
+	public void pathFound(Vector2 step);
+}
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package PathFinders;
+
+import java.util.Comparator;
+
+import Entities.LivingEntity;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Reparte entre pasos de simulación las búsquedas de camino de los enemigos.
+ * Las entidades piden un camino y siguen con su último paso; una vez por paso
+ * se atienden las peticiones pendientes, primero las de las entidades más
+ * cercanas a su objetivo y las que más tiempo llevan esperando, hasta gastar
+ * el presupuesto del paso en nodos expandidos o en tiempo. Todas las búsquedas
+ * se hacen en el hilo de juego; lo único que va a los hilos de búsqueda es el
+ * recálculo del campo de FlowFieldPath, cuyos resultados se entregan al
+ * principio de update.
+ *
+ * El presupuesto es por paso: un frame que se pone al día con varios pasos
+ * (hasta GameScreen.getMaxStepsPerFrame) puede gastar otras tantas veces el
+ * presupuesto.
+ */
+public class PathScheduler {
+	/** Cuánto acerca al principio de la cola cada paso de espera, en celdas */
+	private static final float STALENESS_WEIGHT = 2f;
+
+	private final Array<Request> pending;
+	private final ObjectMap<LivingEntity, Request> byEntity;
+	private final Pool<Request> requestPool;
+	private final Comparator<Request> byPriority;
+	/** Presupuesto por paso */
+	private int nodeBudget;
+	private long timeBudget;
+	private long tick;
+	/** Estadísticas del último paso */
+	private int servedLastTick, nodesLastTick;
+
+	/**
+	 * Constructor.
+	 * @param nodeBudget Nodos que se pueden expandir por paso.
+	 * @param timeBudget Microsegundos que se pueden gastar por paso.
+	 */
+	public PathScheduler(int nodeBudget, long timeBudget) {
+		this.nodeBudget = nodeBudget;
+		this.timeBudget = timeBudget;
+		pending = new Array<Request>(true, 64);
+		byEntity = new ObjectMap<LivingEntity, Request>();
+		requestPool = new Pool<Request>() {
+			@Override
+			protected Request newObject() {
+				return new Request();
+			}
+		};
+		byPriority = new Comparator<Request>() {
+			@Override
+			public int compare(Request r1, Request r2) {
+				return Float.compare(r1.priority, r2.priority);
+			}
+		};
+	}
+
+	/**
+	 * Pide el siguiente paso de una entidad hacia su objetivo. Si ya tenía una
+	 * petición pendiente se sustituye.
+	 * @param entity Entidad que se mueve.
+	 * @param target Objetivo al que se dirige.
+	 * @param pathFinder Buscador que se usará.
+	 * @param listener Quien recibirá el resultado en un paso posterior.
+	 */
+	public void request(LivingEntity entity, LivingEntity target, PathFinder pathFinder, PathListener listener) {
+		Request request = byEntity.get(entity);
+		if(request == null) {
+			request = requestPool.obtain();
+			request.tick = tick;
+			pending.add(request);
+			byEntity.put(entity, request);
+		}
+		request.entity = entity;
+		request.target = target;
+		request.pathFinder = pathFinder;
+		request.listener = listener;
+	}
+
+	/**
+	 * Anula la petición pendiente de una entidad, si la tiene.
+	 */
+	public void cancel(LivingEntity entity) {
+		Request request = byEntity.remove(entity);
+		if(request != null) {
+			pending.removeValue(request, true);
+			request.reset();
+			requestPool.free(request);
+		}
+	}
+
+	/**
+	 * Atiende peticiones hasta gastar el presupuesto del paso. Siempre se
+	 * atiende al menos una, para que la cola avance.
+	 */
+	public void update() {
+		PathService service = PathFinder.getService();
+		if(service != null) {
+			service.deliverCompleted();
+		}
+		tick++;
+		servedLastTick = 0;
+		nodesLastTick = 0;
+		if(pending.size == 0) return;
+
+		for(int i = 0; i < pending.size; i++) {
+			Request request = pending.get(i);
+			float dx = request.target.getCenterX() - request.entity.getCenterX();
+			float dy = request.target.getCenterY() - request.entity.getCenterY();
+			request.priority = (float) Math.sqrt(dx*dx + dy*dy)/tilesize()
+					- (tick - request.tick)*STALENESS_WEIGHT;
+		}
+		pending.sort(byPriority);
+
+		long start = TimeUtils.nanoTime();
+		int served = 0;
+		while(served < pending.size) {
+			Request request = pending.get(served++);
+			Vector2 step = request.pathFinder.findNext(request.entity, request.target);
+			nodesLastTick += request.pathFinder.getNodesExpanded();
+			request.listener.pathFound(step);
+			if(nodesLastTick >= nodeBudget || (TimeUtils.nanoTime() - start)/1000 >= timeBudget) {
+				break;
+			}
+		}
+		servedLastTick = served;
+
+		// Las atendidas son las primeras tras ordenar
+		for(int i = 0; i < served; i++) {
+			Request request = pending.get(i);
+			byEntity.remove(request.entity);
+			request.reset();
+			requestPool.free(request);
+		}
+		for(int i = served; i < pending.size; i++) {
+			pending.set(i - served, pending.get(i));
+		}
+		pending.truncate(pending.size - served);
+	}
+
+	/**
+	 * Elimina todas las peticiones.
+	 */
+	public void clear() {
+		for(Request request : pending) {
+			request.reset();
+		}
+		requestPool.freeAll(pending);
+		pending.clear();
+		byEntity.clear();
+	}
+
+	public void setNodeBudget(int nodeBudget) {
+		this.nodeBudget = nodeBudget;
+	}
+
+	public void setTimeBudget(long microseconds) {
+		this.timeBudget = microseconds;
+	}
+
+	/**
+	 * Devuelve las peticiones que esperan a ser atendidas.
+	 */
+	public int getPending() {
+		return pending.size;
+	}
+
+	/**
+	 * Devuelve las peticiones atendidas en el último paso.
+	 */
+	public int getServedLastTick() {
+		return servedLastTick;
+	}
+
+	/**
+	 * Devuelve los nodos expandidos en el último paso.
+	 */
+	public int getNodesLastTick() {
+		return nodesLastTick;
+	}
+
+	private static float tilesize() {
+		return PathFinder.tilesize > 0 ? PathFinder.tilesize : 1;
+	}
+
+	/**
+	 * Petición de camino pendiente.
+	 */
+	private static class Request {
+		LivingEntity entity, target;
+		PathFinder pathFinder;
+		PathListener listener;
+		/** Paso en el que se pidió */
+		long tick;
+		float priority;
+
+		void reset() {
+			entity = target = null;
+			pathFinder = null;
+			listener = null;
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package PathFinders;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Ejecuta trabajos de búsqueda de caminos (el recálculo del campo de
+ * FlowFieldPath) en un pequeño grupo de hilos para sacarlos del hilo de juego.
+ * Los trabajos terminados vuelven por una cola sin bloqueos, de la que el hilo
+ * de juego los recoge una vez por paso; mientras tanto las entidades siguen
+ * con su último paso.
+ *
+ * Así el paso en el que llega un resultado depende de lo rápidos que sean los
+ * hilos. Con setDeterministic (al grabar o repetir una partida) cada trabajo
+ * se entrega exactamente DELIVERY_TICKS pasos después de mandarlo, esperando
+ * a que termine si aún no lo ha hecho, para que la partida dé siempre el mismo
+ * resultado.
+ */
+public class PathService {
+	/** Pasos entre que se manda un trabajo y se entrega en modo determinista */
+	public static final int DELIVERY_TICKS = 2;
+
+	private final ExecutorService workers;
+	/** Trabajos terminados, que deja cada hilo */
+	private final ConcurrentLinkedQueue<PathJob> completed;
+	/** Trabajos deterministas aún sin entregar, en el orden en que se mandaron. Sólo la usa el hilo de juego. */
+	private final Array<PathJob> ordered;
+	private final int threads;
+	private boolean deterministic;
+	/** Pasos hechos, contados en deliverCompleted */
+	private int tick;
+
+	/**
+	 * Constructor.
+	 * @param threads Número de hilos de búsqueda.
+	 */
+	public PathService(int threads) {
+		this.threads = threads;
+		completed = new ConcurrentLinkedQueue<PathJob>();
+		ordered = new Array<PathJob>(true, 4);
+		workers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private int count;
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "PathService-" + count++);
+				thread.setDaemon(true);
+				thread.setPriority(Thread.NORM_PRIORITY - 1);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Crea el servicio si el dispositivo tiene más de un núcleo, dejando uno para el hilo de juego.
+	 * @return El servicio, o null si las búsquedas deben hacerse en el hilo de juego.
+	 */
+	public static PathService create() {
+		int cores = Runtime.getRuntime().availableProcessors();
+		if(cores < 2) return null;
+		return new PathService(Math.min(cores - 1, 3));
+	}
+
+	/**
+	 * Manda un trabajo a los hilos de búsqueda. Se llama desde el hilo de juego.
+	 */
+	public void submit(PathJob job) {
+		job.start(this, deterministic, tick + DELIVERY_TICKS);
+		if(deterministic) ordered.add(job);
+		workers.execute(job);
+	}
+
+	/**
+	 * Lo llama un hilo al terminar un trabajo que no va en orden.
+	 */
+	void completed(PathJob job) {
+		completed.add(job);
+	}
+
+	/**
+	 * Cuenta un paso y entrega los trabajos terminados. En modo determinista
+	 * entrega los que tocan en este paso, esperando a los que no hayan
+	 * terminado. Se llama desde el hilo de juego una vez por paso.
+	 */
+	public void deliverCompleted() {
+		tick++;
+		PathJob job;
+		while((job = completed.poll()) != null) {
+			deliver(job);
+		}
+		while(ordered.size > 0 && ordered.first().dueTick <= tick) {
+			job = ordered.removeIndex(0);
+			job.await();
+			deliver(job);
+		}
+	}
+
+	private static void deliver(PathJob job) {
+		job.pending = false;
+		job.deliver();
+	}
+
+	/**
+	 * Activa o desactiva la entrega de los trabajos en un paso fijo, que hace
+	 * falta para que una partida se pueda repetir igual. Los trabajos ya
+	 * mandados se entregan como se mandaron.
+	 */
+	public void setDeterministic(boolean deterministic) {
+		this.deterministic = deterministic;
+	}
+
+	public boolean isDeterministic() {
+		return deterministic;
+	}
+
+	/**
+	 * Devuelve el número de hilos de búsqueda.
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Detiene los hilos y descarta los trabajos pendientes. Un cálculo que ya
+	 * esté en marcha acaba en su hilo, pero nunca se entrega.
+	 */
+	public void dispose() {
+		workers.shutdownNow();
+		completed.clear();
+		ordered.clear();
+	}
+}
@@ -5,6 +5,7 @@
  *******************************************************************************/
 package PathFinders;
 
+import roundwar.GameRandom;
 import screenControl.GameScreen;
 import Entities.LivingEntity;
 
@@ -22,8 +23,9 @@ public class TeleportPath extends PathFinder {
 	 */
 	@Override
 	public Vector2 findNext(LivingEntity entity, LivingEntity entityTarget) {
-		int distanceX = (int) Math.floor(Math.random()*4)-2;
-		int distanceY = (int) Math.floor(Math.random()*4)-2; 
+		GameRandom random = GameRandom.get(GameRandom.Stream.AI);
+		int distanceX = random.nextInt(4)-2;
+		int distanceY = random.nextInt(4)-2; 
 		if(distanceY == 0) {
 			if(distanceX == 0) distanceX += 1;
 		}
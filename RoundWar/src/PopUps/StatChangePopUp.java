@@ -8,7 +8,7 @@ package PopUps;
 import roundwar.RoundWar;
 import screenControl.AbstractScreen;
 import screenControl.GameScreen;
-import screenControl.Hud;
+import screenControl.PlayerInput;
 import ProfileSettings.CharacterProfile;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
@@ -108,15 +108,14 @@ public class StatChangePopUp extends PopUp {
 			@Override
 			public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) { 
 				// Pone los valores por defecto de las estadísticas de la raza del personaje
-				cprofile.setDefaultStats();
+				// y reinicia las barras de vida y mana
+				GameScreen screen = GamePausePopUp.getScreen();
+				screen.getInput().resetStats();
+				screen.applyCommands();
 				
 				// Se actualiza los valores de la tabla de estadísticas
 		    	updateTable();
 		    	
-		    	// Se reinician las barras de vida y mana
-		    	Hud.setMaxValueHp(cprofile.getStatHp());
-		    	Hud.setMaxValueMp(cprofile.getMaxMp());
-		    	
 		        return false;
 		    } 
 		} );
@@ -126,10 +125,9 @@ public class StatChangePopUp extends PopUp {
 		    @Override
 			public boolean touchDown (InputEvent  event, float x, float y, int pointer, int button) {     
 		    	if(cprofile.getLeftPoints()>0) {
-			    	cprofile.updateLeftPoints(-1);
+			    	spendPoint(PlayerInput.STAT_ATQ);
 			    	upButtons[0].setChecked(!upButtons[0].isChecked());
 			    	if(cprofile.getLeftPoints()<=0) setUpButtons(true);
-			    	cprofile.updateStatAtq();
 			    	atq.setText(String.valueOf(cprofile.getStatAtq()));
 			    	leftPoints.setText(String.valueOf(cprofile.getLeftPoints()));
 		    	} else upButtons[0].setChecked(true);
@@ -141,10 +139,9 @@ public class StatChangePopUp extends PopUp {
 		    @Override
 			public boolean touchDown (InputEvent  event, float x, float y, int pointer, int button) {     
 		    	if(cprofile.getLeftPoints()>0) {
-			    	cprofile.updateLeftPoints(-1);
+			    	spendPoint(PlayerInput.STAT_DEF);
 			    	upButtons[1].setChecked(!upButtons[1].isChecked());
 			    	if(cprofile.getLeftPoints()<=0) setUpButtons(true);
-			    	cprofile.updateStatDef();
 			    	def.setText(String.valueOf(cprofile.getStatDef()));
 			    	leftPoints.setText(String.valueOf(cprofile.getLeftPoints()));
 		    	} else upButtons[1].setChecked(!upButtons[1].isChecked());
@@ -156,10 +153,9 @@ public class StatChangePopUp extends PopUp {
 		    @Override
 			public boolean touchDown (InputEvent  event, float x, float y, int pointer, int button) {     
 		    	if(cprofile.getLeftPoints()>0) {
-			    	cprofile.updateLeftPoints(-1);
+			    	spendPoint(PlayerInput.STAT_VEL);
 			    	upButtons[2].setChecked(!upButtons[2].isChecked());
 			    	if(cprofile.getLeftPoints()<=0) setUpButtons(true);
-			    	cprofile.updateStatVel();
 			    	vel.setText(String.valueOf(cprofile.getStatVel()));
 			    	leftPoints.setText(String.valueOf(cprofile.getLeftPoints()));
 		    	} else upButtons[2].setChecked(!upButtons[2].isChecked());
@@ -171,11 +167,9 @@ public class StatChangePopUp extends PopUp {
 		    @Override
 			public boolean touchDown (InputEvent  event, float x, float y, int pointer, int button) {     
 		    	if(cprofile.getLeftPoints()>0) {
-			    	cprofile.updateLeftPoints(-1);
+			    	spendPoint(PlayerInput.STAT_HP);
 			    	upButtons[3].setChecked(!upButtons[3].isChecked());
 			    	if(cprofile.getLeftPoints()<=0) setUpButtons(true);
-			    	cprofile.updateStatHp();
-			    	Hud.setMaxValueHp(cprofile.getStatHp());
 			    	hp.setText(String.valueOf(cprofile.getStatHp()));
 			    	leftPoints.setText(String.valueOf(cprofile.getLeftPoints()));
 		    	} else upButtons[3].setChecked(!upButtons[3].isChecked());
@@ -187,11 +181,9 @@ public class StatChangePopUp extends PopUp {
 		    @Override
 			public boolean touchDown (InputEvent  event, float x, float y, int pointer, int button) {     
 		    	if(cprofile.getLeftPoints()>0) {
-			    	cprofile.updateLeftPoints(-1);
+			    	spendPoint(PlayerInput.STAT_MP);
 			    	upButtons[4].setChecked(!upButtons[4].isChecked());
 			    	if(cprofile.getLeftPoints()<=0) setUpButtons(true);
-			    	cprofile.updateMaxMp();
-			    	Hud.setMaxValueMp(cprofile.getMaxMp());
 			    	mp.setText(String.valueOf(cprofile.getMaxMp()));
 			    	leftPoints.setText(String.valueOf(cprofile.getLeftPoints()));
 		    	} else if(cprofile.getLeftPoints() == 0){
@@ -201,6 +193,17 @@ public class StatChangePopUp extends PopUp {
 		    } } );
 	}
 	
+	/**
+	 * Gasta un punto en una estadística. Pasa por las órdenes del jugador para
+	 * que quede en la repetición, y se aplica ya porque el juego está en pausa.
+	 * @param stat Orden de PlayerInput de la estadística.
+	 */
+	private void spendPoint(int stat) {
+		GameScreen screen = GamePausePopUp.getScreen();
+		screen.getInput().spendPoint(stat);
+		screen.applyCommands();
+	}
+	
 	/**
 	 * Pone todos los botones de subida de estadísticas a checkeados o no según se le indique.
 	 * @param checked
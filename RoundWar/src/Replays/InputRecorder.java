@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package Replays;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+
+import roundwar.RoundWar;
+import screenControl.PlayerInput;
+import ProfileSettings.CharacterProfile;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Graba las órdenes del jugador de una partida, paso a paso, en el formato de
+ * ReplayFormat. Si falla la escritura deja de grabar sin parar el juego.
+ */
+public class InputRecorder {
+	private DataOutputStream out;
+	/** Último paso con evento y último estado grabado del controlador y de los ataques */
+	private int lastTick;
+	private boolean touched;
+	private int knobX, knobY, lastX, lastY;
+	private int events;
+
+	/**
+	 * Empieza una grabación escribiendo la cabecera.
+	 * @param stream Donde se graba. Se cierra al terminar.
+	 * @param sceneId Id del escenario.
+	 * @param seed Semilla de la partida.
+	 * @param tickRate Pasos de simulación por segundo.
+	 * @param profile Perfil del personaje del jugador.
+	 * @param detailLevels Si los enemigos lejanos se actualizan con menos detalle (Enemy.setDetailLevels).
+	 * @param invulnerable Si el jugador es invulnerable.
+	 */
+	public InputRecorder(OutputStream stream, int sceneId, long seed, int tickRate, CharacterProfile profile,
+			boolean detailLevels, boolean invulnerable) {
+		try {
+			DataOutputStream raw = new DataOutputStream(stream);
+			raw.writeInt(ReplayFormat.MAGIC);
+			raw.writeByte(ReplayFormat.VERSION);
+			out = new DataOutputStream(new DeflaterOutputStream(new BufferedOutputStream(stream)));
+			ReplayFormat.writeVarInt(out, sceneId);
+			out.writeLong(seed);
+			ReplayFormat.writeVarInt(out, tickRate);
+			writeProfile(profile);
+			out.writeByte((detailLevels ? 0 : ReplayFormat.NO_DETAIL_LEVELS)
+					| (invulnerable ? ReplayFormat.INVULNERABLE : 0));
+		} catch(IOException e) {
+			throw new GdxRuntimeException("Couldn't start replay recording", e);
+		}
+	}
+
+	private void writeProfile(CharacterProfile profile) throws IOException {
+		ReplayFormat.writeVarInt(out, profile.getType().ordinal());
+		out.writeUTF(profile.getName() == null ? "" : profile.getName());
+		ReplayFormat.writeVarInt(out, profile.getLvl());
+		ReplayFormat.writeVarInt(out, profile.getExperience());
+		ReplayFormat.writeVarInt(out, profile.getMaxMp());
+		out.writeFloat(profile.getStatAtq());
+		out.writeFloat(profile.getStatDef());
+		out.writeFloat(profile.getStatHp());
+		out.writeFloat(profile.getStatVel());
+		out.writeFloat(profile.getRecoveryMp());
+		ReplayFormat.writeVarInt(out, profile.getUpExp().ordinal());
+		out.writeByte((profile.isAtq1() ? 1 : 0) | (profile.isAtq2() ? 2 : 0)
+				| (profile.isAtq3() ? 4 : 0) | (profile.isAtq4() ? 8 : 0));
+		ReplayFormat.writeVarInt(out, profile.getLeftPoints());
+	}
+
+	/**
+	 * Graba lo que haya cambiado en las órdenes de un paso.
+	 * @param tick Número de paso.
+	 * @param input Órdenes del paso, aún sin aplicar.
+	 */
+	public void record(int tick, PlayerInput input) {
+		if(out == null) return;
+		try {
+			if(input.isTouched() != touched || input.getKnobX() != knobX || input.getKnobY() != knobY) {
+				touched = input.isTouched();
+				knobX = input.getKnobX();
+				knobY = input.getKnobY();
+				if(touched) {
+					writeEvent(tick, ReplayFormat.KNOB);
+					out.writeByte(knobX);
+					out.writeByte(knobY);
+				} else {
+					writeEvent(tick, ReplayFormat.RELEASE);
+				}
+			}
+			writeCommands(tick, input);
+		} catch(IOException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Graba sólo las órdenes pendientes, sin el controlador. Es para las que se
+	 * aplican con el juego en pausa, entre un paso y el siguiente.
+	 * @param tick Último paso hecho.
+	 * @param input Órdenes, aún sin aplicar.
+	 */
+	public void recordCommands(int tick, PlayerInput input) {
+		if(out == null) return;
+		try {
+			writeCommands(tick, input);
+		} catch(IOException e) {
+			fail(e);
+		}
+	}
+
+	private void writeCommands(int tick, PlayerInput input) throws IOException {
+		for(int i = 0; i < input.getCommandCount(); i++) {
+			int type = input.getCommandType(i);
+			writeEvent(tick, type);
+			if(type == PlayerInput.BASIC_ATTACK) {
+				int x = input.getCommandX(i);
+				int y = input.getCommandY(i);
+				ReplayFormat.writeSignedVarInt(out, x - lastX);
+				ReplayFormat.writeSignedVarInt(out, y - lastY);
+				lastX = x;
+				lastY = y;
+			}
+		}
+	}
+
+	/**
+	 * Termina la grabación guardando el estado final de la partida.
+	 * @param tick Último paso simulado.
+	 * @param x Posición del personaje en el eje x.
+	 * @param y Posición del personaje en el eje y.
+	 * @param health Vida del personaje.
+	 * @param leftEnemies Enemigos vivos.
+	 */
+	public void close(int tick, float x, float y, float health, int leftEnemies) {
+		if(out == null) return;
+		try {
+			writeEvent(tick, ReplayFormat.END);
+			out.writeFloat(x);
+			out.writeFloat(y);
+			out.writeFloat(health);
+			ReplayFormat.writeVarInt(out, leftEnemies);
+			out.close();
+			Gdx.app.log(RoundWar.LOG, "Replay recorded: " + tick + " ticks, " + events + " events");
+		} catch(IOException e) {
+			fail(e);
+		}
+		out = null;
+	}
+
+	/**
+	 * Devuelve si se sigue grabando.
+	 */
+	public boolean isRecording() {
+		return out != null;
+	}
+
+	/**
+	 * Devuelve los eventos grabados.
+	 */
+	public int getEvents() {
+		return events;
+	}
+
+	private void writeEvent(int tick, int type) throws IOException {
+		ReplayFormat.writeVarInt(out, ((tick - lastTick) << ReplayFormat.TYPE_BITS) | type);
+		lastTick = tick;
+		events++;
+	}
+
+	private void fail(IOException e) {
+		Gdx.app.error(RoundWar.LOG, "Replay recording failed", e);
+		try {
+			out.close();
+		} catch(IOException ignored) {
+		}
+		out = null;
+	}
+}
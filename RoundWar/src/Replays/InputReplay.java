@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package Replays;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.InflaterInputStream;
+
+import screenControl.PlayerInput;
+import Entities.LivingEntity;
+import Entities.MainCharacter;
+import ProfileSettings.CharacterProfile;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Lee una repetición grabada con InputRecorder y devuelve, paso a paso, las
+ * mismas órdenes del jugador. La partida debe crearse con el escenario, la
+ * semilla, los pasos por segundo, el perfil y las opciones de la cabecera.
+ */
+public class InputReplay {
+	private final DataInputStream in;
+	private final int sceneId, tickRate;
+	private final long seed;
+	private final CharacterProfile profile;
+	private final boolean detailLevels, invulnerable;
+	/** Siguiente evento ya leído: paso y tipo */
+	private int nextTick, nextType;
+	private int lastX, lastY;
+	/** Estado final grabado */
+	private boolean ended;
+	private int endTick, endEnemies;
+	private float endX, endY, endHealth;
+
+	/**
+	 * Abre una repetición leyendo la cabecera.
+	 * @param stream Repetición. Se cierra al terminar.
+	 */
+	public InputReplay(InputStream stream) {
+		try {
+			DataInputStream raw = new DataInputStream(stream);
+			if(raw.readInt() != ReplayFormat.MAGIC) throw new GdxRuntimeException("Not a replay file");
+			int version = raw.readUnsignedByte();
+			if(version != ReplayFormat.VERSION) throw new GdxRuntimeException("Unsupported replay version: " + version);
+			in = new DataInputStream(new InflaterInputStream(new BufferedInputStream(stream)));
+			sceneId = ReplayFormat.readVarInt(in);
+			seed = in.readLong();
+			tickRate = ReplayFormat.readVarInt(in);
+			profile = readProfile();
+			int options = in.readUnsignedByte();
+			detailLevels = (options & ReplayFormat.NO_DETAIL_LEVELS) == 0;
+			invulnerable = (options & ReplayFormat.INVULNERABLE) != 0;
+			readNext();
+		} catch(IOException e) {
+			throw new GdxRuntimeException("Couldn't read replay", e);
+		}
+	}
+
+	private CharacterProfile readProfile() throws IOException {
+		CharacterProfile profile = new CharacterProfile();
+		profile.setType(LivingEntity.Type.values()[ReplayFormat.readVarInt(in)]);
+		profile.setName(in.readUTF());
+		profile.setLvl(ReplayFormat.readVarInt(in));
+		profile.setExperience(ReplayFormat.readVarInt(in));
+		profile.setMaxMp(ReplayFormat.readVarInt(in));
+		profile.setStatAtq(in.readFloat());
+		profile.setStatDef(in.readFloat());
+		profile.setStatHp(in.readFloat());
+		profile.setStatVel(in.readFloat());
+		profile.setRecoveryMp(in.readFloat());
+		profile.setUpExp(MainCharacter.Experience.values()[ReplayFormat.readVarInt(in)]);
+		int attacks = in.readUnsignedByte();
+		profile.setAtq1((attacks & 1) != 0);
+		profile.setAtq2((attacks & 2) != 0);
+		profile.setAtq3((attacks & 4) != 0);
+		profile.setAtq4((attacks & 8) != 0);
+		profile.updateLeftPoints(ReplayFormat.readVarInt(in)); // setLeftPoints cambia el pop up, que aquí puede no haber
+		return profile;
+	}
+
+	/**
+	 * Pone en input las órdenes grabadas para un paso.
+	 * @param tick Número de paso.
+	 */
+	public void read(int tick, PlayerInput input) {
+		try {
+			while(!ended && nextTick <= tick) {
+				switch(nextType) {
+					case ReplayFormat.KNOB:
+						input.setKnobScaled(in.readByte(), in.readByte());
+						break;
+					case ReplayFormat.RELEASE:
+						input.releaseKnob();
+						break;
+					case PlayerInput.BASIC_ATTACK:
+						lastX += ReplayFormat.readSignedVarInt(in);
+						lastY += ReplayFormat.readSignedVarInt(in);
+						input.add(nextType, lastX, lastY);
+						break;
+					default:
+						input.add(nextType, 0, 0);
+				}
+				readNext();
+			}
+		} catch(IOException e) {
+			throw new GdxRuntimeException("Couldn't read replay", e);
+		}
+	}
+
+	/**
+	 * Lee el tipo y el paso del siguiente evento, y el estado final si es el último.
+	 */
+	private void readNext() throws IOException {
+		int header = ReplayFormat.readVarInt(in);
+		nextTick += header >>> ReplayFormat.TYPE_BITS;
+		nextType = header & ((1 << ReplayFormat.TYPE_BITS) - 1);
+		if(nextType == ReplayFormat.END) {
+			ended = true;
+			endTick = nextTick;
+			endX = in.readFloat();
+			endY = in.readFloat();
+			endHealth = in.readFloat();
+			endEnemies = ReplayFormat.readVarInt(in);
+			close();
+		}
+	}
+
+	/**
+	 * Devuelve si ya se ha llegado al último paso grabado.
+	 */
+	public boolean isFinished(int tick) {
+		return ended && tick >= endTick;
+	}
+
+	/**
+	 * Devuelve si el estado de la partida coincide con el grabado al terminar.
+	 */
+	public boolean matches(int tick, float x, float y, float health, int leftEnemies) {
+		return ended && tick == endTick && x == endX && y == endY && health == endHealth
+				&& leftEnemies == endEnemies;
+	}
+
+	/**
+	 * Cierra el fichero.
+	 */
+	public void close() {
+		try {
+			in.close();
+		} catch(IOException ignored) {
+		}
+	}
+
+	public int getSceneId() {
+		return sceneId;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public int getTickRate() {
+		return tickRate;
+	}
+
+	public CharacterProfile getProfile() {
+		return profile;
+	}
+
+	/**
+	 * Devuelve si la partida se grabó con los niveles de detalle de los enemigos.
+	 */
+	public boolean isDetailLevels() {
+		return detailLevels;
+	}
+
+	/**
+	 * Devuelve si la partida se grabó con el jugador invulnerable.
+	 */
+	public boolean isInvulnerable() {
+		return invulnerable;
+	}
+
+	public int getEndTick() {
+		return endTick;
+	}
+}
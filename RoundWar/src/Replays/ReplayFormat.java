@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package Replays;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Formato de las repeticiones. Tras la marca y la versión, todo va comprimido
+ * con deflate: la cabecera (escenario, semilla, pasos por segundo, perfil del
+ * personaje, con los puntos de estadística por gastar, y las opciones que
+ * cambian la simulación) y luego un evento por cada cambio en las órdenes del jugador.
+ * Cada evento empieza con un varint que lleva los pasos desde el evento
+ * anterior y, en los 4 bits bajos, su tipo. El controlador sólo se guarda
+ * cuando cambia (2 bytes) y las posiciones de los ataques como diferencia con
+ * el anterior (varint en zigzag). El último evento guarda el estado final para
+ * comprobar que la repetición ha dado el mismo resultado.
+ *
+ * Sólo se guardan las órdenes, así que todo lo demás tiene que salir igual
+ * paso a paso. Por eso, al grabar y al repetir, el PathScheduler no tiene
+ * límite de tiempo (sólo de nodos) y el PathService entrega sus trabajos en un
+ * paso fijo: si no, las búsquedas atendidas en cada paso y el paso en el que
+ * llega cada resultado dependerían de la velocidad del dispositivo.
+ */
+final class ReplayFormat {
+	/** "RWRP" */
+	static final int MAGIC = 0x52575250;
+	static final int VERSION = 2;
+
+	/** Tipos de evento además de las órdenes de PlayerInput (1 a 7 y 9 a 14) */
+	static final int KNOB = 0, RELEASE = 8, END = 15;
+	static final int TYPE_BITS = 4;
+	/** Opciones de la cabecera: enemigos sin niveles de detalle y jugador invulnerable */
+	static final int NO_DETAIL_LEVELS = 1, INVULNERABLE = 2;
+
+	private ReplayFormat() {
+	}
+
+	/**
+	 * Escribe un entero sin signo en 7 bits por byte.
+	 */
+	static void writeVarInt(DataOutputStream out, int value) throws IOException {
+		while((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	/**
+	 * Lee un entero escrito con writeVarInt.
+	 */
+	static int readVarInt(DataInputStream in) throws IOException {
+		int value = 0;
+		for(int shift = 0; shift < 35; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if((b & 0x80) == 0) return value;
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	/**
+	 * Escribe un entero con signo, en zigzag para que los valores pequeños
+	 * negativos también ocupen poco.
+	 */
+	static void writeSignedVarInt(DataOutputStream out, int value) throws IOException {
+		writeVarInt(out, (value << 1) ^ (value >> 31));
+	}
+
+	/**
+	 * Lee un entero escrito con writeSignedVarInt.
+	 */
+	static int readSignedVarInt(DataInputStream in) throws IOException {
+		int value = readVarInt(in);
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
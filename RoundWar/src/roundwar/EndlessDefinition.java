@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar;
+
+/**
+ * Definición inmutable del modo sin fin de un escenario: cuando se acaban sus
+ * oleadas fijas se generan otras sin parar, cada una con más enemigos y de
+ * más nivel que la anterior. La oleada n (desde 0) tiene
+ * enemies*growth^n + add*n enemigos, hasta max, y sus niveles suben
+ * levelsPerWave por oleada. Sus enemigos se piden repartidos a lo largo de
+ * los every segundos que hay entre una oleada y la siguiente, y la siguiente
+ * no empieza hasta que han aparecido todos. Con spread los enemigos aparecen
+ * en cualquier celda libre del mapa lejos del jugador, no sólo en los puntos
+ * de aparición, para que quepan miles.
+ */
+public class EndlessDefinition {
+	/** Segundos entre dos peticiones de enemigos de una oleada generada */
+	public static final float SPAWN_INTERVAL = 0.5f;
+	/** Celdas alrededor de la posición inicial del jugador en las que no aparecen enemigos con spread */
+	public static final int SAFE_CELLS = 8;
+
+	private final float start, every;
+	private final float enemies, growth, add;
+	private final int max;
+	private final int minLevel, maxLevel;
+	private final float levelsPerWave;
+	private final int followers, teleporters;
+	private final boolean spread;
+	private final float budget;
+
+	/**
+	 * Constructor.
+	 * @param start Segundo en el que empieza la primera oleada generada.
+	 * @param every Segundos entre una oleada generada y la siguiente.
+	 * @param enemies Enemigos de la primera oleada generada.
+	 * @param growth Factor por el que se multiplican los enemigos en cada oleada.
+	 * @param add Enemigos que se suman en cada oleada.
+	 * @param max Máximo de enemigos de una oleada.
+	 * @param minLevel Nivel mínimo de la primera oleada generada.
+	 * @param maxLevel Nivel máximo de la primera oleada generada.
+	 * @param levelsPerWave Niveles que suben los enemigos en cada oleada.
+	 * @param followers Peso de los seguidores en la mezcla de enemigos.
+	 * @param teleporters Peso de los teletransportadores en la mezcla de enemigos.
+	 * @param spread Si los enemigos aparecen en cualquier celda libre.
+	 * @param budget Milisegundos por frame a partir de los que se avisa de que la partida no llega.
+	 */
+	public EndlessDefinition(float start, float every, float enemies, float growth, float add, int max,
+			int minLevel, int maxLevel, float levelsPerWave, int followers, int teleporters, boolean spread,
+			float budget) {
+		this.start = start;
+		this.every = every;
+		this.enemies = enemies;
+		this.growth = growth;
+		this.add = add;
+		this.max = max;
+		this.minLevel = minLevel;
+		this.maxLevel = maxLevel;
+		this.levelsPerWave = levelsPerWave;
+		this.followers = followers;
+		this.teleporters = teleporters;
+		this.spread = spread;
+		this.budget = budget;
+	}
+
+	/**
+	 * Crea la definición de la oleada generada número index (desde 0).
+	 */
+	public WaveDefinition createWave(int index) {
+		int count = (int) Math.max(1, Math.min(max, Math.round(enemies*Math.pow(growth, index) + add*index)));
+		int levels = (int) (levelsPerWave*index);
+		int burst = (int) Math.max(1, Math.ceil(count*SPAWN_INTERVAL/every));
+		return new WaveDefinition((int) (start + every*index), count, count, minLevel + levels, maxLevel + levels,
+				followers, teleporters, burst, SPAWN_INTERVAL);
+	}
+
+	/**
+	 * Si los enemigos aparecen en cualquier celda libre del mapa lejos del jugador.
+	 */
+	public boolean isSpread() {
+		return spread;
+	}
+
+	/**
+	 * Devuelve los milisegundos por frame que no se deberían superar.
+	 */
+	public float getBudget() {
+		return budget;
+	}
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar;
+
+import screenControl.AbstractScreen;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Atlas con los sprites de las entidades, los ataques y las caras de los
+ * personajes, para que se dibujen con la misma textura sin cortar el batch.
+ * Las regiones se llaman como su imagen, sin extensión ("sprite/pirko",
+ * "images/attacks", "images/front"), que es el nombre que les da el
+ * TexturePacker al empaquetar la carpeta de assets.
+ *
+ * Si no está el atlas empaquetado (PATH), se cargan las imágenes sueltas con
+ * los mismos nombres. Los nombres que no están en el atlas se buscan en el del
+ * skin. Se carga la primera vez que se pide una región y se libera al cerrar
+ * el juego.
+ */
+public class GameAtlas {
+	public static final String PATH = "images/game.atlas";
+	/** Imágenes que se cargan sueltas si no hay atlas */
+	private static final String[] LOOSE = {"sprite/pirko", "sprite/gulla", "sprite/enemy", "images/attacks", "images/front"};
+
+	private static TextureAtlas atlas;
+	private static boolean packed;
+
+	private GameAtlas() {
+	}
+
+	/**
+	 * Devuelve el atlas, cargándolo si es la primera vez.
+	 */
+	public static TextureAtlas get() {
+		if(atlas == null) load();
+		return atlas;
+	}
+
+	private static void load() {
+		FileHandle file = Gdx.files.internal(PATH);
+		packed = file.exists();
+		if(packed) {
+			atlas = new TextureAtlas(file);
+			Gdx.app.log(RoundWar.LOG, "Loaded " + PATH + " (" + atlas.getTextures().size() + " pages)");
+			return;
+		}
+		Gdx.app.log(RoundWar.LOG, "No " + PATH + ", loading loose sprite textures");
+		atlas = new TextureAtlas();
+		for(String name : LOOSE) {
+			FileHandle image = Gdx.files.internal(name + ".png");
+			if(!image.exists()) continue;
+			Texture texture = new Texture(image);
+			atlas.addRegion(name, texture, 0, 0, texture.getWidth(), texture.getHeight());
+		}
+	}
+
+	/**
+	 * Devuelve si se ha cargado el atlas empaquetado y no las imágenes sueltas.
+	 */
+	public static boolean isPacked() {
+		get();
+		return packed;
+	}
+
+	/**
+	 * Devuelve la región con ese nombre, del atlas o si no está del skin.
+	 */
+	public static TextureRegion findRegion(String name) {
+		TextureRegion region = get().findRegion(name);
+		if(region == null && AbstractScreen.getSkin() != null && AbstractScreen.getSkin().getAtlas() != null) {
+			region = AbstractScreen.getSkin().getAtlas().findRegion(name);
+		}
+		if(region == null) throw new GdxRuntimeException("Region not found in game atlas: " + name);
+		return region;
+	}
+
+	/**
+	 * Libera las texturas del atlas.
+	 */
+	public static void dispose() {
+		if(atlas != null) atlas.dispose();
+		atlas = null;
+	}
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar;
+
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Pool de objetos del juego (enemigos, ataques) que cuenta cuántos ha creado y
+ * se puede llenar por adelantado al empezar un escenario, para que durante el
+ * combate no haya que crear ninguno.
+ */
+public abstract class GamePool<T> extends Pool<T> {
+	/** Objetos creados desde que se creó o vació el pool */
+	private int created;
+
+	public GamePool() {
+		super();
+	}
+
+	/**
+	 * Crea un objeto nuevo sin inicializar.
+	 */
+	protected abstract T create();
+
+	@Override
+	protected final T newObject() {
+		created++;
+		return create();
+	}
+
+	/**
+	 * Crea los objetos que falten para tener al menos count libres.
+	 */
+	public void prewarm(int count) {
+		while(getFree() < count) {
+			free(newObject());
+		}
+	}
+
+	/**
+	 * Vacía el pool.
+	 */
+	@Override
+	public void clear() {
+		super.clear();
+		created = 0;
+		peak = 0;
+	}
+
+	/**
+	 * Devuelve los objetos creados por el pool.
+	 */
+	public int getCreated() {
+		return created;
+	}
+
+	/**
+	 * Devuelve los objetos del pool que están en uso.
+	 */
+	public int getInUse() {
+		return created - getFree();
+	}
+}
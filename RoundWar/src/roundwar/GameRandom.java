@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar;
+
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Números aleatorios de la partida. Hay un generador (xorshift64*, sin
+ * sincronizar) para cada parte del juego, todos sacados de la semilla de la
+ * partida, así que con la misma semilla se repiten las mismas oleadas y
+ * enemigos aunque otra parte pida más o menos números. Sólo debe usarse desde
+ * el hilo del juego.
+ */
+public final class GameRandom {
+	/**
+	 * Partes del juego con generador propio.
+	 */
+	public enum Stream {
+		/** Tamaño de las oleadas del escenario */
+		WAVES,
+		/** Punto de aparición, tipo y nivel de los enemigos */
+		SPAWNS,
+		/** Estadísticas y tiempos de cada enemigo */
+		ENEMIES,
+		/** Movimientos de la IA */
+		AI
+	}
+
+	private static final GameRandom[] streams = new GameRandom[Stream.values().length];
+	private static long seed;
+	private long state;
+
+	static {
+		for(int i = 0; i < streams.length; i++) {
+			streams[i] = new GameRandom();
+		}
+		setSeed(newSeed());
+	}
+
+	private GameRandom() {
+	}
+
+	/**
+	 * Vuelve a empezar todos los generadores a partir de la semilla dada.
+	 */
+	public static void setSeed(long seed) {
+		GameRandom.seed = seed;
+		for(int i = 0; i < streams.length; i++) {
+			long state = mix(seed + (i + 1)*0x9E3779B97F4A7C15L);
+			streams[i].state = state == 0 ? 1 : state; // xorshift no puede partir de 0
+		}
+	}
+
+	/**
+	 * Devuelve la semilla de la partida actual.
+	 */
+	public static long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Crea una semilla nueva a partir de la hora.
+	 */
+	public static long newSeed() {
+		return mix(TimeUtils.millis() ^ System.nanoTime());
+	}
+
+	/**
+	 * Devuelve el generador de una parte del juego.
+	 */
+	public static GameRandom get(Stream stream) {
+		return streams[stream.ordinal()];
+	}
+
+	/**
+	 * Devuelve un long aleatorio.
+	 */
+	public long nextLong() {
+		long x = state;
+		x ^= x >>> 12;
+		x ^= x << 25;
+		x ^= x >>> 27;
+		state = x;
+		return x * 0x2545F4914F6CDD1DL;
+	}
+
+	/**
+	 * Devuelve un entero aleatorio entre 0 (incluido) y bound (excluido).
+	 */
+	public int nextInt(int bound) {
+		if(bound <= 0) return 0;
+		return (int) (((nextLong() >>> 32)*bound) >>> 32);
+	}
+
+	/**
+	 * Devuelve un entero aleatorio entre min y max (incluidos).
+	 */
+	public int nextInt(int min, int max) {
+		return min + nextInt(max - min + 1);
+	}
+
+	/**
+	 * Devuelve un float aleatorio entre 0 (incluido) y 1 (excluido).
+	 */
+	public float nextFloat() {
+		return (nextLong() >>> 40)*0x1.0p-24f;
+	}
+
+	/**
+	 * Devuelve un boolean aleatorio.
+	 */
+	public boolean nextBoolean() {
+		return nextLong() < 0;
+	}
+
+	/**
+	 * Mezcla de splitmix64, para que semillas parecidas den estados muy distintos.
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30))*0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27))*0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
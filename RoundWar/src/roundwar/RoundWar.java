@@ -7,6 +7,9 @@ package roundwar;
 
 import screenControl.AbstractScreen;
 import screenControl.LoadingScreen;
+import Events.ConsoleEventSink;
+import Events.EventLog;
+import Events.RotatingFileEventSink;
 import PopUps.PopUp;
 import ProfileSettings.Profile;
 import ProfileSettings.ProfileSerializer;
@@ -27,6 +30,16 @@ public class RoundWar extends Game implements ApplicationListener  {
 	public static Profile profile;
 	public static Music bgMusic;
 	public AssetManager manager = new AssetManager();
+	/** Si el juego se ejecuta sin ventana ni OpenGL (RoundWar-headless): no se cargan
+	 * texturas ni interfaz, no se dibuja y no se guarda el perfil. */
+	public static boolean headless;
+	/** Si se graban las órdenes del jugador de cada partida en .roundWar/replays */
+	public static boolean recordReplays;
+	/** Si se guardan los tiempos de cada frame de las partidas en .roundWar/profiles */
+	public static boolean profileFrames;
+	/** Si se registran los sucesos de las partidas, y si en la consola en lugar de en .roundWar/logs */
+	public static boolean logEvents, logEventsToConsole;
+	public static final String EVENT_DIR = ".roundWar/logs/";
 
 	/**
 	 * Crea la aplicación e indica cual será la primera pantalla a mostrar.
@@ -35,6 +48,11 @@ public class RoundWar extends Game implements ApplicationListener  {
 	public void create() {		
 		Gdx.app.log( RoundWar.LOG, "Creating game" ); 
 		load();
+		SceneCatalog.load();
+		if(logEvents) {
+			EventLog.start(logEventsToConsole ? new ConsoleEventSink()
+					: new RotatingFileEventSink(Gdx.files.local(EVENT_DIR), "events"));
+		}
 		PopUp.setGame(this);
 		AbstractScreen.setGame(this);
 //		setScreen( new SplashScreen());
@@ -82,6 +100,8 @@ public class RoundWar extends Game implements ApplicationListener  {
 		save();
 		if(bgMusic != null) bgMusic.dispose();
 		AbstractScreen.disposeStatic();
+		GameAtlas.dispose();
+		EventLog.stop();
 		super.dispose();
         Gdx.app.log( RoundWar.LOG, "Disposing game" );
 	}
@@ -10,81 +10,140 @@ import java.util.List;
 
 import screenControl.Background;
 import screenControl.GameScreen;
+import Attacks.BallAttack;
+import Entities.EnemyFollower;
+import Entities.EnemyTeleporter;
 import Entities.LivingEntity;
 import Entities.ReturnIntEntity;
 import PathFinders.PathFinder;
 
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
 
 public class Scene {
 	private static GameScreen game;
+	/** Máximo de objetos que se crean por adelantado en cada pool */
+	private static final int MAX_PREWARM = 64;
 	
 	private boolean lastWave;
 	private String path, nameLevel;
 	private List<Vector2> spawnPoints;
 	private LinkedList<Wave> waves;
 	private Wave currentWave;
+	private SpawnScheduler spawner;
+	/** Modo sin fin del escenario (o null), oleadas generadas y oleadas empezadas */
+	private EndlessDefinition endless;
+	private int generatedWaves, waveNumber;
 	private Background bg;
+	/** Memoria reutilizada por isFree */
+	private final Array<LivingEntity> nearby = new Array<LivingEntity>(false, 16);
+	private final Rectangle moved = new Rectangle();
 	
 	/**
 	 * Constructor.
-	 * @param id Id del escenario.
+	 * @param id Id del escenario en SceneCatalog.
 	 */
 	public Scene(int id) {
 		// Crea las oleadas e inicializa el escenario.
-		switch(id) {
-			case 1:
-				setName("Prueba2");
-				waves.add(new Wave(5,  3 + (int)(Math.random() * 5), 10, 12));
-				waves.add(new Wave(10, 3 + (int)(Math.random() * 5), 12, 15));
-				waves.add(new Wave(20, 3 + (int)(Math.random() * 5), 13, 17));
-				waves.add(new Wave(30, 3 + (int)(Math.random() * 5), 14, 19));
-				waves.add(new Wave(45, 3 + (int)(Math.random() * 5), 15, 20));
-				waves.add(new Wave(60, 3 + (int)(Math.random() * 5), 16, 24));
-				break;
-			default: // Id 0 u otros
-				setName("Test");
-				waves.add(new Wave(5,  2 + (int)(Math.random() * 3), 1, 2));
-				waves.add(new Wave(10, 2 + (int)(Math.random() * 3), 2, 4));
-				waves.add(new Wave(15, 2 + (int)(Math.random() * 3), 3, 6));
-				waves.add(new Wave(20, 2 + (int)(Math.random() * 3), 4, 8));
-				waves.add(new Wave(30, 2 + (int)(Math.random() * 3), 5, 10));
-				waves.add(new Wave(40, 2 + (int)(Math.random() * 3), 6, 12));
-				break;
+		SceneDefinition definition = SceneCatalog.get(id);
+		setName(definition);
+		GameRandom random = GameRandom.get(GameRandom.Stream.WAVES);
+		for(int i = 0; i < definition.getWaveCount(); i++) {
+			waves.add(new Wave(definition.getWave(i), random));
 		}
+		endless = definition.getEndless();
+		if(waves.isEmpty()) generateWave();
 		
+		prewarmPools();
 		currentWave = waves.pop(); // Coge la primera oleada
+		waveNumber = 1;
 	}
 	
-	private void setName(String name) {
-		this.nameLevel = name;
-		path = "background/map" + nameLevel + ".tmx"; 
-		System.out.println(path);
+	/**
+	 * Añade la siguiente oleada del modo sin fin.
+	 */
+	private void generateWave() {
+		waves.add(new Wave(endless.createWave(generatedWaves++), GameRandom.get(GameRandom.Stream.WAVES)));
+	}
+	
+	/**
+	 * Llena los pools con los enemigos y ataques que pueden hacer falta en las
+	 * oleadas del escenario, para no crearlos durante el combate.
+	 */
+	private void prewarmPools() {
+		int followers = 0, teleporters = 0;
+		for(Wave wave : waves) {
+			followers += wave.getMaxEnemies();
+			if(wave.hasTeleporters()) {
+				teleporters += wave.getMaxEnemies();
+			}
+		}
+		EnemyFollower.getPool().prewarm(Math.min(followers, MAX_PREWARM));
+		EnemyTeleporter.getPool().prewarm(Math.min(teleporters, MAX_PREWARM));
+		BallAttack.getPool().prewarm(Math.min(16 + teleporters, MAX_PREWARM));
+	}
+	
+	private void setName(SceneDefinition definition) {
+		this.nameLevel = definition.getName();
+		path = definition.getMap();
+		Gdx.app.log(RoundWar.LOG, "Loading map " + path);
 		lastWave = false;
 		
 		bg = new Background(path); // Carga el mapa
 		game.getStage().addActor(bg);
 		spawnPoints = bg.loadObstacles();
+		for(int i = 0; i < definition.getSpawnCount(); i++) { // Puntos de aparición extra del escenario
+			spawnPoints.add(new Vector2((definition.getSpawnCellX(i) + 0.5f)*GameScreen.tileSize,
+					(definition.getSpawnCellY(i) + 0.5f)*GameScreen.tileSize));
+		}
+		if(definition.getEndless() != null && definition.getEndless().isSpread()) addFreeCells();
 		
 		PathFinder.setLayer(bg.getLayerColission());
-		Wave.setSpawns(spawnPoints);
+		spawner = new SpawnScheduler(spawnPoints);
+		Wave.setScheduler(spawner);
 		waves = new LinkedList<Wave>();
 	}
 	
+	/**
+	 * Añade como puntos de aparición todas las celdas libres del mapa salvo las
+	 * que están cerca de donde empieza el jugador.
+	 */
+	private void addFreeCells() {
+		TiledMapTileLayer layer = bg.getLayerColission();
+		int playerX = (int) (game.getCharacter().getCenterX()/GameScreen.tileSize);
+		int playerY = (int) (game.getCharacter().getCenterY()/GameScreen.tileSize);
+		int safe = EndlessDefinition.SAFE_CELLS;
+		for(int y = 0; y < layer.getHeight(); y++) {
+			for(int x = 0; x < layer.getWidth(); x++) {
+				if(bg.isObstacle(x, y) || (Math.abs(x - playerX) <= safe && Math.abs(y - playerY) <= safe)) continue;
+				spawnPoints.add(new Vector2((x + 0.5f)*GameScreen.tileSize, (y + 0.5f)*GameScreen.tileSize));
+			}
+		}
+	}
+	
 	/**
 	 * Actualiza el escenario y la oleada actual, en caso de haberla.
 	 * @param delta
 	 */
 	public void update(float delta) {
-		if(!(lastWave && currentWave.isSpawned()) && game.getTime() > currentWave.getTime()) {
+		if(!(lastWave && currentWave.isRequested()) && game.getTime() > currentWave.getTime()) {
 			// Nueva oleada
-			if(!currentWave.spawnEnemies(delta)){
-				currentWave = waves.isEmpty() ? currentWave : waves.pop();
-				if(waves.isEmpty())  // La oleada actual es la última
+			// Sin fin: la siguiente oleada espera a que hayan aparecido todos los enemigos de la actual
+			boolean waiting = endless != null && waves.isEmpty() && !spawner.isEmpty();
+			if(!currentWave.spawnEnemies(delta) && !waiting){
+				if(waves.isEmpty() && endless != null) generateWave(); // Sin fin: siempre hay otra
+				if(!waves.isEmpty()) {
+					currentWave = waves.pop();
+					waveNumber++;
+				}
+				if(waves.isEmpty() && endless == null)  // La oleada actual es la última
 					lastWave = true;
 			}
 		}
+		spawner.update();
 	}
 	
 	/**
@@ -120,6 +179,7 @@ public class Scene {
 		Background.setScreen(game);
 		PathFinder.setScreen(game);
 		Wave.setScreen(game);
+		SpawnScheduler.setScreen(game);
 	}
 	
 	/**
@@ -130,6 +190,27 @@ public class Scene {
 		spawnPoints.add(point);
 	}
 	
+	/**
+	 * Devuelve el modo sin fin del escenario, o null si termina al acabar sus oleadas.
+	 */
+	public EndlessDefinition getEndless() {
+		return endless;
+	}
+	
+	/**
+	 * Devuelve el número de la oleada actual (desde 1).
+	 */
+	public int getWaveNumber() {
+		return waveNumber;
+	}
+	
+	/**
+	 * Devuelve el planificador que hace aparecer los enemigos de las oleadas.
+	 */
+	public SpawnScheduler getSpawnScheduler() {
+		return spawner;
+	}
+	
 	/**
 	 * Devuelve el fondo de pantalla (mapa).
 	 */
@@ -151,53 +232,83 @@ public class Scene {
 	 * @param deltaX
 	 * @param deltaY
 	 * @param cooldown
+	 * @param result Donde se guarda el resultado, que también se devuelve.
 	 */
-	public ReturnIntEntity isFree(LivingEntity entity, float deltaX, float deltaY, int cooldown) {
+	public ReturnIntEntity isFree(LivingEntity entity, float deltaX, float deltaY, int cooldown, ReturnIntEntity result) {
     	if(cooldown >= 0) {
-    		return isFree(entity, deltaX, deltaY);
+    		return isFree(entity, deltaX, deltaY, result);
     	} else {
     		LivingEntity ent = game.collides(entity, deltaX, deltaY);
     		if(ent != null) {
-    			return new ReturnIntEntity(3, ent);
+    			return result.set(3, ent);
     		}
-    		return new ReturnIntEntity(0, null);
+    		return result.set(0, null);
     	}
     }
     
 	/**
 	 * Devuelve la entidad y la dirección en la que se chocará la entidad pasada si se mueve delaX y deltaY, en caso de haberla.
+	 * Las entidades cercanas se buscan una sola vez con el área que barre el movimiento y se
+	 * prueban a la vez las tres posiciones: moviéndose en ambos ejes, sólo en x y sólo en y.
 	 * @param entity
 	 * @param deltaX
 	 * @param deltaY
+	 * @param result Donde se guarda el resultado, que también se devuelve.
 	 */
-    public ReturnIntEntity isFree(LivingEntity entity, float deltaX, float deltaY) {
-    	Rectangle bounds = new Rectangle(entity.getBounds());
-    	bounds.x += deltaX;
-    	bounds.y += deltaY;
-    	ReturnIntEntity result = new ReturnIntEntity(0, null);
-    	LivingEntity ent = game.collides(entity, deltaX, deltaY);
+    public ReturnIntEntity isFree(LivingEntity entity, float deltaX, float deltaY, ReturnIntEntity result) {
+    	Rectangle bounds = entity.getBounds();
+    	nearby.clear();
+    	game.queryArea(Math.min(bounds.x, bounds.x + deltaX), Math.min(bounds.y, bounds.y + deltaY),
+    			bounds.width + Math.abs(deltaX), bounds.height + Math.abs(deltaY), nearby);
+    	LivingEntity both = null, onlyX = null, onlyY = null;
+    	for(int i = 0; i < nearby.size; i++) {
+    		LivingEntity ent = nearby.get(i);
+    		if(ent == entity) continue;
+    		Rectangle other = ent.getBounds();
+    		if(both == null && overlaps(other, bounds, deltaX, deltaY)) both = ent;
+    		if(onlyX == null && overlaps(other, bounds, deltaX, 0)) onlyX = ent;
+    		if(onlyY == null && overlaps(other, bounds, 0, deltaY)) onlyY = ent;
+    	}
+    	nearby.clear();
     	
-    	if(ent == null && bg.isFree(bounds)) { 			// Sin colision en ningún eje
-    		return result;
-    	} else {
-    		result.setEntity(ent);
-    		ent = game.collides(entity, deltaX, 0);
-	    	bounds.y -= deltaY;
-	    	if(ent == null && bg.isFree(bounds)) { 		// Sin colision en el eje x
-	    		result.setInt(1);
-	    	} else {
-	    		result.setEntity(ent);
-	    		ent = game.collides(entity, 0, deltaY);
-	    		bounds.y += deltaY;
-		    	bounds.x -= deltaX;
-		    	if(ent == null && bg.isFree(bounds)) { 	// Sin colision en el eje y
-		    		result.setInt(2);
-		    	} else {								// Colisión en ambos ejes
-		    		result.setInt(3);
-		    	}
-	    	}
+    	moved.set(bounds.x + deltaX, bounds.y + deltaY, bounds.width, bounds.height);
+    	if(both == null && bg.isFree(moved)) { 			// Sin colision en ningún eje
+    		return result.set(0, null);
     	}
-    	return result;
+    	moved.y = bounds.y;
+    	if(onlyX == null && bg.isFree(moved)) { 		// Sin colision en el eje x
+    		return result.set(1, both);
+    	}
+    	moved.x = bounds.x;
+    	moved.y = bounds.y + deltaY;
+    	if(onlyY == null && bg.isFree(moved)) { 		// Sin colision en el eje y
+    		return result.set(2, onlyX);
+    	}
+    	return result.set(3, onlyX);					// Colisión en ambos ejes
+    }
+    
+    /**
+     * Si la entidad puede moverse deltaX y deltaY sin chocar con otra entidad ni
+     * con el mapa. A diferencia de isFree no prueba a moverse en un solo eje:
+     * es la comprobación barata de los enemigos lejanos, que se mueven a saltos.
+     * Como en isFree, con cooldown negativo (aún no ha llegado a su primer paso)
+     * no se mira el mapa.
+     */
+    public boolean isFreeCoarse(LivingEntity entity, float deltaX, float deltaY, int cooldown) {
+    	if(game.collides(entity, deltaX, deltaY) != null) return false;
+    	if(cooldown < 0) return true;
+    	Rectangle bounds = entity.getBounds();
+    	moved.set(bounds.x + deltaX, bounds.y + deltaY, bounds.width, bounds.height);
+    	return bg.isFree(moved);
+    }
+    
+    /**
+     * Si el rectángulo de otra entidad se solapa con bounds desplazado deltaX y deltaY.
+     */
+    private static boolean overlaps(Rectangle other, Rectangle bounds, float deltaX, float deltaY) {
+    	float x = bounds.x + deltaX, y = bounds.y + deltaY;
+    	return x < other.x + other.width && x + bounds.width > other.x
+    			&& y < other.y + other.height && y + bounds.height > other.y;
     }
     
     /**
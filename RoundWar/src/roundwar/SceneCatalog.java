@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+
+/**
+ * Escenarios del juego, leídos una sola vez al arrancar de data/scenes.json.
+ * El id de un escenario es su posición en el fichero. Crear un escenario sólo
+ * consulta su definición, ya leída y comprobada.
+ *
+ * Formato de cada escenario:
+ * <pre>
+ * { "name": "Test", "map": "background/mapTest.tmx", "spawns": [[1, 5]],
+ *   "waves": [
+ *     { "time": 5, "enemies": [2, 4], "levels": [1, 2] },
+ *     { "time": 15, "enemies": [2, 4], "levels": [3, 6], "mix": { "follower": 2, "teleporter": 3 } }
+ *   ] }
+ * </pre>
+ * "spawns" son celdas del mapa que se añaden a sus puntos de aparición y es
+ * opcional. En cada oleada, "enemies" y "levels" son rangos cerrados, "mix"
+ * son los pesos de cada tipo de IA (sólo seguidores si no se indica) y los
+ * opcionales "burst" e "interval" son los enemigos que aparecen a la vez y
+ * los segundos entre un grupo y el siguiente (1 y 1 si no se indican).
+ *
+ * Un escenario con "endless" no termina: cuando se acaban sus oleadas (que
+ * entonces son opcionales) se generan otras cada vez mayores (ver
+ * EndlessDefinition). Todos sus campos son opcionales:
+ * <pre>
+ * "endless": { "start": 5, "every": 20, "enemies": 10, "growth": 1.25, "add": 0, "max": 5000,
+ *   "levels": [1, 2], "levelsPerWave": 0.5, "mix": { "follower": 2, "teleporter": 3 },
+ *   "spread": true, "budget": 16.7 }
+ * </pre>
+ */
+public class SceneCatalog {
+	public static final String PATH = "data/scenes.json";
+
+	private static Array<SceneDefinition> scenes;
+
+	private SceneCatalog() {
+	}
+
+	/**
+	 * Lee los escenarios de data/scenes.json si aún no se han leído.
+	 */
+	public static void load() {
+		if(scenes == null) load(Gdx.files.internal(PATH));
+	}
+
+	/**
+	 * Lee los escenarios de un fichero, sustituyendo a los que hubiera.
+	 */
+	public static void load(FileHandle file) {
+		if(!file.exists()) throw new GdxRuntimeException("Scene file not found: " + file.path());
+		JsonValue root;
+		try {
+			root = new JsonReader().parse(file);
+		} catch(RuntimeException e) {
+			throw new GdxRuntimeException("Couldn't parse " + file.path(), e);
+		}
+		JsonValue list = root.get("scenes");
+		if(list == null || list.size == 0) throw new GdxRuntimeException("No scenes in " + file.path());
+		Array<SceneDefinition> loaded = new Array<SceneDefinition>(list.size);
+		try {
+			for(JsonValue scene = list.child; scene != null; scene = scene.next) {
+				loaded.add(readScene(scene, loaded.size));
+			}
+		} catch(GdxRuntimeException e) {
+			throw new GdxRuntimeException("Invalid " + file.path() + ": " + e.getMessage());
+		}
+		scenes = loaded;
+		Gdx.app.log(RoundWar.LOG, "Loaded " + scenes.size + " scenes from " + file.path());
+	}
+
+	/**
+	 * Devuelve la definición de un escenario. Con un id que no existe devuelve
+	 * la del escenario 0.
+	 */
+	public static SceneDefinition get(int id) {
+		load();
+		return scenes.get(id >= 0 && id < scenes.size ? id : 0);
+	}
+
+	/**
+	 * Devuelve el número de escenarios.
+	 */
+	public static int size() {
+		load();
+		return scenes.size;
+	}
+
+	private static SceneDefinition readScene(JsonValue scene, int id) {
+		String name = scene.getString("name", null);
+		String map = scene.getString("map", null);
+		if(name == null || map == null) fail(id, "needs a name and a map");
+
+		JsonValue spawns = scene.get("spawns");
+		int[] spawnCells = new int[spawns == null ? 0 : spawns.size*2];
+		int index = 0;
+		for(JsonValue cell = spawns == null ? null : spawns.child; cell != null; cell = cell.next) {
+			if(cell.size != 2) fail(id, "has a spawn that is not [x, y]");
+			spawnCells[index++] = cell.getInt(0);
+			spawnCells[index++] = cell.getInt(1);
+		}
+
+		JsonValue endless = scene.get("endless");
+		JsonValue list = scene.get("waves");
+		if(endless == null && (list == null || list.size == 0)) fail(id, "has no waves");
+		WaveDefinition[] waves = new WaveDefinition[list == null ? 0 : list.size];
+		index = 0;
+		int time = 0;
+		for(JsonValue wave = list == null ? null : list.child; wave != null; wave = wave.next) {
+			waves[index] = readWave(wave, id, index);
+			if(waves[index].getTime() < time) fail(id, "has waves out of order");
+			time = waves[index++].getTime();
+		}
+		return new SceneDefinition(name, map, spawnCells, waves, endless == null ? null : readEndless(endless, id));
+	}
+
+	private static EndlessDefinition readEndless(JsonValue endless, int id) {
+		JsonValue levels = endless.get("levels"), mix = endless.get("mix");
+		if(levels != null && !isRange(levels)) fail(id, "has endless levels that are not [min, max]");
+		int followers = mix == null ? 1 : mix.getInt("follower", 0);
+		int teleporters = mix == null ? 0 : mix.getInt("teleporter", 0);
+		float every = endless.getFloat("every", 20), growth = endless.getFloat("growth", 1.25f);
+		float budget = endless.getFloat("budget", 1000f/60);
+		if(every <= 0 || growth <= 0 || budget <= 0 || followers < 0 || teleporters < 0 || followers + teleporters == 0) {
+			fail(id, "has an invalid endless mode");
+		}
+		return new EndlessDefinition(endless.getFloat("start", 5), every, endless.getFloat("enemies", 10), growth,
+				endless.getFloat("add", 0), endless.getInt("max", 5000),
+				levels == null ? 1 : levels.getInt(0), levels == null ? 2 : levels.getInt(1),
+				endless.getFloat("levelsPerWave", 0.5f), followers, teleporters, endless.getBoolean("spread", false), budget);
+	}
+
+	private static WaveDefinition readWave(JsonValue wave, int id, int index) {
+		JsonValue enemies = wave.get("enemies"), levels = wave.get("levels"), mix = wave.get("mix");
+		if(wave.get("time") == null || !isRange(enemies) || !isRange(levels)) {
+			fail(id, "wave " + index + " needs a time and [min, max] enemies and levels");
+		}
+		int followers = mix == null ? 1 : mix.getInt("follower", 0);
+		int teleporters = mix == null ? 0 : mix.getInt("teleporter", 0);
+		if(followers < 0 || teleporters < 0 || followers + teleporters == 0) {
+			fail(id, "wave " + index + " has no enemies in its mix");
+		}
+		int burst = wave.getInt("burst", 1);
+		float interval = wave.getFloat("interval", 1);
+		if(burst < 1 || interval <= 0) fail(id, "wave " + index + " needs a positive burst and interval");
+		return new WaveDefinition(wave.getInt("time"), enemies.getInt(0), enemies.getInt(1),
+				levels.getInt(0), levels.getInt(1), followers, teleporters, burst, interval);
+	}
+
+	/**
+	 * Si es un rango [min, max] con min <= max.
+	 */
+	private static boolean isRange(JsonValue range) {
+		return range != null && range.size == 2 && range.getInt(0) <= range.getInt(1);
+	}
+
+	private static void fail(int id, String error) {
+		throw new GdxRuntimeException("scene " + id + " " + error);
+	}
+}
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar;
+
+/**
+ * Definición inmutable de un escenario, leída del fichero de escenarios: su
+ * nombre, el mapa, los puntos de aparición que se añaden a los del mapa, sus
+ * oleadas en orden y, si lo tiene, su modo sin fin.
+ */
+public class SceneDefinition {
+	private final String name, map;
+	/** Celdas de los puntos de aparición extra: x e y de cada una, seguidas */
+	private final int[] spawnCells;
+	private final WaveDefinition[] waves;
+	private final EndlessDefinition endless;
+
+	/**
+	 * Constructor. Los arrays pasan a ser de la definición y no se deben cambiar después.
+	 * @param name Nombre del escenario.
+	 * @param map Ruta del mapa tmx.
+	 * @param spawnCells Celdas de aparición extra (x e y de cada una, seguidas).
+	 * @param waves Oleadas en el orden en que empiezan.
+	 * @param endless Oleadas que se generan al acabarse las anteriores, o null si no tiene.
+	 */
+	public SceneDefinition(String name, String map, int[] spawnCells, WaveDefinition[] waves,
+			EndlessDefinition endless) {
+		this.name = name;
+		this.map = map;
+		this.spawnCells = spawnCells;
+		this.waves = waves;
+		this.endless = endless;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Devuelve la ruta del mapa.
+	 */
+	public String getMap() {
+		return map;
+	}
+
+	/**
+	 * Devuelve cuántos puntos de aparición se añaden a los del mapa.
+	 */
+	public int getSpawnCount() {
+		return spawnCells.length/2;
+	}
+
+	public int getSpawnCellX(int index) {
+		return spawnCells[index*2];
+	}
+
+	public int getSpawnCellY(int index) {
+		return spawnCells[index*2 + 1];
+	}
+
+	public int getWaveCount() {
+		return waves.length;
+	}
+
+	public WaveDefinition getWave(int index) {
+		return waves[index];
+	}
+
+	/**
+	 * Devuelve el modo sin fin del escenario, o null si no tiene.
+	 */
+	public EndlessDefinition getEndless() {
+		return endless;
+	}
+}
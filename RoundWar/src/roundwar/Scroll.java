@@ -167,7 +167,6 @@ public class Scroll extends ScrollPane {
 		private ImageCharacter image;
 		private int lvlint, experienceint;
         private String lvl, experience;      
-        private static Texture tex;
         private static TextureRegion[][] fronts;
         private static NinePatch tbg;
         
@@ -195,8 +194,7 @@ public class Scroll extends ScrollPane {
         public static void initialize() {
 //        	texBg = new Texture(Gdx.files.internal("images/prueba.png"));
         	tbg = AbstractScreen.getSkin().getPatch("bg-info");// new TextureRegion(texBg,0,0,85,85);
-        	tex = new Texture(Gdx.files.internal("images/front.png"));
-    		fronts = TextureRegion.split(tex, 64, 64);
+    		fronts = GameAtlas.findRegion("images/front").split(64, 64);
         }
                                        
         public String getExperience() {
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar;
+
+import java.util.List;
+
+import screenControl.GameScreen;
+import Entities.LivingEntity;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Hace aparecer los enemigos que piden las oleadas. En cada paso mira qué
+ * puntos de aparición están libres, antes de sacar ningún enemigo del pool, y
+ * reparte los enemigos pendientes entre ellos al azar, varios en el mismo paso
+ * si hay sitio. Los que no caben esperan en cola, en el orden en que se
+ * pidieron, y se vuelven a intentar en el paso siguiente. Con muchos puntos
+ * (el modo sin fin puede usar todas las celdas libres del mapa) en cada paso
+ * sólo se miran MAX_CHECKED, repartidos por la lista desde uno al azar.
+ */
+public class SpawnScheduler {
+	/** Máximo de enemigos que aparecen en un mismo paso */
+	public static final int MAX_PER_TICK = 8;
+	/** Máximo de puntos de aparición que se comprueban en un mismo paso */
+	public static final int MAX_CHECKED = 64;
+	
+	private static GameScreen game;
+	private final List<Vector2> spawnPoints;
+	/** Oleadas con enemigos pendientes, en orden */
+	private final Array<Wave> queue;
+	/** Puntos libres en el paso actual */
+	private final Array<Vector2> free;
+	/** Lado del rectángulo de colisión de un enemigo */
+	private final float size;
+	private int spawned, deferred;
+	
+	/**
+	 * Constructor.
+	 * @param spawnPoints Centros de los puntos de aparición.
+	 */
+	public SpawnScheduler(List<Vector2> spawnPoints) {
+		this.spawnPoints = spawnPoints;
+		queue = new Array<Wave>(true, 8);
+		free = new Array<Vector2>(false, spawnPoints.size());
+		size = LivingEntity.Type.ENEMY1.getBoundsSize();
+	}
+	
+	/**
+	 * Guarda la pantalla de juego donde aparecen los enemigos.
+	 */
+	public static void setScreen(GameScreen screen) {
+		SpawnScheduler.game = screen;
+	}
+	
+	/**
+	 * Pide que aparezcan enemigos de una oleada.
+	 * @param count Enemigos que se añaden a los que ya tenía pendientes.
+	 */
+	public void request(Wave wave, int count) {
+		if(count <= 0) return;
+		if(!wave.hasPending()) queue.add(wave);
+		wave.addPending(count);
+	}
+	
+	/**
+	 * Hace aparecer los enemigos pendientes que quepan en este paso.
+	 */
+	public void update() {
+		if(queue.size == 0) return;
+		GameRandom random = GameRandom.get(GameRandom.Stream.SPAWNS);
+		findFreePoints(random);
+		for(int count = 0; count < MAX_PER_TICK && queue.size > 0 && free.size > 0; count++) {
+			Wave wave = queue.first();
+			wave.spawn(free.removeIndex(random.nextInt(free.size)), random);
+			spawned++;
+			if(!wave.hasPending()) queue.removeIndex(0);
+		}
+		free.clear();
+		if(queue.size > 0) deferred++;
+	}
+	
+	/**
+	 * Guarda en free los puntos donde cabe un enemigo sin chocar con ninguna
+	 * entidad, mirando como mucho MAX_CHECKED.
+	 */
+	private void findFreePoints(GameRandom random) {
+		int n = spawnPoints.size();
+		if(n == 0) return;
+		int checked = Math.min(n, MAX_CHECKED), stride = n/checked;
+		int index = n > MAX_CHECKED ? random.nextInt(n) : 0;
+		for(int i = 0; i < checked; i++, index = (index + stride) % n) {
+			Vector2 point = spawnPoints.get(index);
+			if(!game.isOccupied(point.x - size/2, point.y - size/2, size, size)) free.add(point);
+		}
+	}
+	
+	/**
+	 * Si no queda ningún enemigo por aparecer.
+	 */
+	public boolean isEmpty() {
+		return queue.size == 0;
+	}
+	
+	/**
+	 * Devuelve los enemigos que han aparecido.
+	 */
+	public int getSpawned() {
+		return spawned;
+	}
+	
+	/**
+	 * Devuelve los pasos en los que algún enemigo se ha quedado esperando por falta de sitio.
+	 */
+	public int getDeferred() {
+		return deferred;
+	}
+}
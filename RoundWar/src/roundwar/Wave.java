@@ -5,8 +5,6 @@
  *******************************************************************************/
 package roundwar;
 
-import java.util.List;
-
 import screenControl.GameScreen;
 import Entities.Enemy;
 import Entities.EnemyFollower;
@@ -17,26 +15,56 @@ import com.badlogic.gdx.math.Vector2;
 
 public class Wave {
 	private static GameScreen game;
-	private static List<Vector2> spawnPoints;
+	private static SpawnScheduler scheduler;
 	private int startTime;
-	private int maxEnemies, spawnedEnemies;
+	private int maxEnemies, spawnedEnemies, requestedEnemies;
+	/** Enemigos pedidos al planificador que aún no han aparecido */
+	private int pending;
 	private int maxLevel, minLevel;
+	/** Pesos de cada tipo de IA al elegir un enemigo */
+	private int followers, teleporters;
+	/** Enemigos que se piden a la vez y segundos entre una petición y la siguiente */
+	private int burst;
+	private float interval;
 	private float delay;
 	
 	/**
-	 * Constructor.
+	 * Constructor. Con nivel máximo menor que 6 sólo aparecen seguidores; si
+	 * no, 2 de cada 5 son seguidores y el resto teletransportadores.
 	 * @param startTime Cuando comenzará la oleada.
 	 * @param maxEnemies Numero de enemigos que spawnearán en la oleada.
 	 * @param minLevel Nivel mínimo de los enemigos.
 	 * @param maxLevel Nivel máximo de los enemigos.
 	 */
-	Wave(int startTime, int maxEnemies, int minLevel, int maxLevel) {
+	public Wave(int startTime, int maxEnemies, int minLevel, int maxLevel) {
+		this(startTime, maxEnemies, minLevel, maxLevel, maxLevel < 6 ? 1 : 2, maxLevel < 6 ? 0 : 3, 1, 1);
+	}
+	
+	/**
+	 * Crea una oleada a partir de su definición. El número de enemigos se
+	 * elige al azar dentro del rango de la definición.
+	 * @param definition
+	 * @param random Números aleatorios de las oleadas.
+	 */
+	public Wave(WaveDefinition definition, GameRandom random) {
+		this(definition.getTime(),
+				definition.getMinEnemies() + random.nextInt(definition.getMaxEnemies() - definition.getMinEnemies() + 1),
+				definition.getMinLevel(), definition.getMaxLevel(), definition.getFollowers(), definition.getTeleporters(),
+				definition.getBurst(), definition.getInterval());
+	}
+	
+	private Wave(int startTime, int maxEnemies, int minLevel, int maxLevel, int followers, int teleporters,
+			int burst, float interval) {
 		this.startTime = startTime;
 		this.maxEnemies = maxEnemies;
 		this.maxLevel = maxLevel;
 		this.minLevel = minLevel;
+		this.followers = followers;
+		this.teleporters = teleporters;
+		this.burst = burst;
+		this.interval = interval;
 		this.delay = 0;
-		spawnedEnemies = 0;
+		spawnedEnemies = requestedEnemies = pending = 0;
 	}
 	
 	/**
@@ -55,47 +83,107 @@ public class Wave {
 	}
 	
 	/**
-	 * Se guardan los puntos donde pueden spawnear enemigos.
-	 * @param spawns
+	 * Guarda el planificador que hace aparecer los enemigos de las oleadas.
+	 * @param scheduler
 	 */
-	public static void setSpawns(List<Vector2> spawns) {
-		Wave.spawnPoints = spawns;
+	public static void setScheduler(SpawnScheduler scheduler) {
+		Wave.scheduler = scheduler;
 	}
 	
 	/**
-	 * Spawnea enemigos.
+	 * Pide al planificador los enemigos que tocan: cada interval segundos, burst
+	 * enemigos a la vez. Aparecen cuando haya sitio para ellos.
 	 * @param delta
+	 * @return Si quedan enemigos por pedir.
 	 */
 	public boolean spawnEnemies(float delta) {
 		if(delay < 0) {
-			//rand = 0;
-			Enemy enemy;
-			Enemy.Ia iarand;
-			Vector2 spawn = spawnPoints.get((int)(Math.random() * spawnPoints.size()));
-			// Generamos un enemigo aleatorio
-			iarand = Enemy.randomEnemy(maxLevel);
-			switch(iarand) {
-				case TELEPORTER:
-					enemy = new EnemyTeleporter(LivingEntity.Type.ENEMY1, spawn, minLevel + 4 + (int)(Math.random() * (maxLevel + 4)));
-					break;
-				default: // Follower
-					enemy = new EnemyFollower(LivingEntity.Type.ENEMY1, spawn, minLevel + 1 + (int)(Math.random() * (maxLevel + 1)));
-					break;
-			}
-			
-			if(game.collidesWithEntity(enemy, spawn.x, spawn.y) == null) {
-				game.addEntity(enemy);
-				spawnedEnemies++;
-			} else enemy.dispose();
-			delay = 1;
-			
-			return spawnedEnemies < maxEnemies ? true : false;
+			int count = Math.min(burst, maxEnemies - requestedEnemies);
+			requestedEnemies += count;
+			scheduler.request(this, count);
+			delay = interval;
+			return requestedEnemies < maxEnemies;
 		} else {
 			delay -= delta;
 			return true;
 		}
 	}
 	
+	/**
+	 * Hace aparecer un enemigo pendiente en un punto que el planificador ya ha comprobado que está libre.
+	 * @param spawn Centro del punto de aparición.
+	 * @param random Números aleatorios de las apariciones.
+	 */
+	void spawn(Vector2 spawn, GameRandom random) {
+		Enemy enemy;
+		switch(randomIa(random)) {
+			case TELEPORTER:
+				enemy = EnemyTeleporter.obtain(LivingEntity.Type.ENEMY1, spawn, minLevel + 4 + random.nextInt(maxLevel + 4));
+				break;
+			default: // Follower
+				enemy = EnemyFollower.obtain(LivingEntity.Type.ENEMY1, spawn, minLevel + 1 + random.nextInt(maxLevel + 1));
+				break;
+		}
+		game.addEntity(enemy);
+		spawnedEnemies++;
+		pending--;
+	}
+	
+	/**
+	 * Elige el tipo de IA del siguiente enemigo según los pesos de la oleada.
+	 * Si sólo hay un tipo no gasta números aleatorios.
+	 */
+	private Enemy.Ia randomIa(GameRandom random) {
+		if(teleporters == 0) return Enemy.Ia.FOLLOWER;
+		if(followers == 0) return Enemy.Ia.TELEPORTER;
+		return random.nextInt(followers + teleporters) < followers ? Enemy.Ia.FOLLOWER : Enemy.Ia.TELEPORTER;
+	}
+	
+	/**
+	 * Devuelve el número de enemigos que spawnearán en la oleada.
+	 */
+	public int getMaxEnemies() {
+		return maxEnemies;
+	}
+	
+	/**
+	 * Devuelve el nivel máximo de los enemigos.
+	 */
+	public int getMaxLevel() {
+		return maxLevel;
+	}
+	
+	/**
+	 * Si pueden aparecer teletransportadores en la oleada.
+	 */
+	public boolean hasTeleporters() {
+		return teleporters > 0;
+	}
+	
+	/**
+	 * Suma enemigos a los pedidos al planificador que aún no han aparecido.
+	 */
+	void addPending(int count) {
+		pending += count;
+	}
+	
+	/**
+	 * Si le queda algún enemigo pedido al planificador por aparecer.
+	 */
+	boolean hasPending() {
+		return pending > 0;
+	}
+	
+	/**
+	 * Si ya ha pedido todos sus enemigos, aunque alguno no haya aparecido aún.
+	 */
+	public boolean isRequested() {
+		return requestedEnemies == maxEnemies;
+	}
+	
+	/**
+	 * Si han aparecido todos sus enemigos.
+	 */
 	public boolean isSpawned() {
 		return spawnedEnemies == maxEnemies;
 	}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package roundwar;
+
+/**
+ * Definición inmutable de una oleada, leída del fichero de escenarios: cuándo
+ * empieza, cuántos enemigos aparecen, entre qué niveles, en qué proporción
+ * de cada tipo de IA y a qué ritmo.
+ */
+public class WaveDefinition {
+	private final int time;
+	private final int minEnemies, maxEnemies;
+	private final int minLevel, maxLevel;
+	private final int followers, teleporters;
+	private final int burst;
+	private final float interval;
+
+	/**
+	 * Constructor.
+	 * @param time Segundo de la partida en el que empieza.
+	 * @param minEnemies Mínimo de enemigos que aparecen.
+	 * @param maxEnemies Máximo de enemigos que aparecen.
+	 * @param minLevel Nivel mínimo de los enemigos.
+	 * @param maxLevel Nivel máximo de los enemigos.
+	 * @param followers Peso de los seguidores en la mezcla de enemigos.
+	 * @param teleporters Peso de los teletransportadores en la mezcla de enemigos.
+	 * @param burst Enemigos que se piden a la vez.
+	 * @param interval Segundos entre una petición de enemigos y la siguiente.
+	 */
+	public WaveDefinition(int time, int minEnemies, int maxEnemies, int minLevel, int maxLevel,
+			int followers, int teleporters, int burst, float interval) {
+		this.time = time;
+		this.minEnemies = minEnemies;
+		this.maxEnemies = maxEnemies;
+		this.minLevel = minLevel;
+		this.maxLevel = maxLevel;
+		this.followers = followers;
+		this.teleporters = teleporters;
+		this.burst = burst;
+		this.interval = interval;
+	}
+
+	public int getTime() {
+		return time;
+	}
+
+	public int getMinEnemies() {
+		return minEnemies;
+	}
+
+	public int getMaxEnemies() {
+		return maxEnemies;
+	}
+
+	public int getMinLevel() {
+		return minLevel;
+	}
+
+	public int getMaxLevel() {
+		return maxLevel;
+	}
+
+	/**
+	 * Devuelve el peso de los seguidores en la mezcla de enemigos.
+	 */
+	public int getFollowers() {
+		return followers;
+	}
+
+	/**
+	 * Devuelve el peso de los teletransportadores en la mezcla de enemigos.
+	 */
+	public int getTeleporters() {
+		return teleporters;
+	}
+
+	/**
+	 * Devuelve cuántos enemigos se piden a la vez.
+	 */
+	public int getBurst() {
+		return burst;
+	}
+
+	/**
+	 * Devuelve los segundos entre una petición de enemigos y la siguiente.
+	 */
+	public float getInterval() {
+		return interval;
+	}
+}
@@ -6,9 +6,10 @@
 package screenControl;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+
+import roundwar.RoundWar;
+import screenControl.FrameProfiler.Phase;
 
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
@@ -16,7 +17,6 @@ import com.badlogic.gdx.maps.tiled.TiledMap;
 import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
 import com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell;
 import com.badlogic.gdx.maps.tiled.TmxMapLoader;
-import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.Actor;
@@ -24,10 +24,12 @@ import com.badlogic.gdx.scenes.scene2d.Actor;
 public class Background extends Actor {
 	private static GameScreen game;
 	private static TiledMap map;
-	private static OrthogonalTiledMapRenderer renderer; 
+	private static ChunkedMapRenderer renderer;
 	private static OrthographicCamera cam;
 	private TiledMapTileLayer collision;
-	private Map<Vector2, Rectangle> obstacles;
+	/** Un bit por celda del mapa (fila a fila), a 1 si es un obstáculo */
+	private long[] obstacles;
+	private int width, height;
 	//private List<Vector2> spawns; //Guarda el punto justo donde se tienen que spawnear los enemigos
 	private float tileSize;
 	
@@ -36,11 +38,16 @@ public class Background extends Actor {
 	 * @param path Dirección donde se encuentra el mapa a cargar (Solo para GameScreen).
 	 */
 	public Background (String path) {
-		map = new TmxMapLoader().load(path);
+		if(RoundWar.headless) { // Sólo la capa de colisión y sin dibujar
+			map = new CollisionMapLoader().load(path);
+			renderer = null;
+		} else {
+			map = new TmxMapLoader().load(path);
+			renderer = new ChunkedMapRenderer(map, game.getStage().getSpriteBatch());
+		}
         collision = (TiledMapTileLayer)map.getLayers().get("collision");
         tileSize = collision.getTileHeight();
         cam =  (OrthographicCamera)game.getStage().getCamera();
-		renderer = new OrthogonalTiledMapRenderer(map, game.getStage().getSpriteBatch());
 	}
 	
 	/**
@@ -59,7 +66,9 @@ public class Background extends Actor {
 	 */
 	public List<Vector2> loadObstacles() {
 		List<Vector2> spawnPoints = new ArrayList<Vector2>();
-		obstacles = new HashMap<Vector2, Rectangle>();
+		width = collision.getWidth();
+		height = collision.getHeight();
+		obstacles = new long[(width*height + 63) >>> 6];
 		Cell cell;
 		for (int i = 0; i < collision.getWidth(); i++) {
 			for (int j = 0; j < collision.getHeight(); j++) {
@@ -71,7 +80,8 @@ public class Background extends Actor {
 						if(cell.getTile().getProperties().get("spawn") != null) { // Es un punto de spawn de enemigos
 							spawnPoints.add(new Vector2(i*tileSize + tileSize/2, j*tileSize + tileSize/2));
 						}
-						obstacles.put(new Vector2(i, j), new Rectangle(i*tileSize, j*tileSize, tileSize, tileSize));
+						int index = j*width + i;
+						obstacles[index >>> 6] |= 1L << (index & 63);
 					}
 				}
 			}
@@ -87,8 +97,17 @@ public class Background extends Actor {
 	 * @return Devuelve la posición central de la celda adyacente
 	 */
 	public Vector2 calculeAdyacentCellCenter(float posX, float posY, int direction) {
+		return calculeAdyacentCellCenter(posX, posY, direction, 4);
+	}
+	
+	/**
+	 * Igual que calculeAdyacentCellCenter, probando como mucho tries direcciones.
+	 * Si están todas bloqueadas devuelve el centro de la propia celda.
+	 */
+	private Vector2 calculeAdyacentCellCenter(float posX, float posY, int direction, int tries) {
 		int x = (int)(posX/tileSize);
 		int y = (int)(posY/tileSize);
+		if(tries == 0) return new Vector2(x*tileSize + tileSize/2, y*tileSize + tileSize/2);
 		switch(direction) {
 			case 0:		// Arriba
 				y++;
@@ -103,10 +122,10 @@ public class Background extends Actor {
 				x--;
 				break;
 		}
-		if(!obstacles.containsKey(new Vector2(x,y))) {	// No es un obtáculo
+		if(!isObstacle(x, y)) {	// No es un obtáculo
 			return new Vector2(x*tileSize + tileSize/2, y*tileSize + tileSize/2);
 		} else {
-			return calculeAdyacentCellCenter(posX, posY, (direction + 1)%4); // Intenta moverse en otra dirección
+			return calculeAdyacentCellCenter(posX, posY, (direction + 1)%4, tries - 1); // Intenta moverse en otra dirección
 		}
 	}
 	
@@ -116,31 +135,56 @@ public class Background extends Actor {
 	@Override
 	public void draw (SpriteBatch batch, float parentAlpha){
 		super.draw(batch, parentAlpha);
+		if(renderer == null) return;
 		batch.end();
-        renderer.render();
+		game.getProfiler().addRenderCalls(batch.renderCalls); // begin las vuelve a contar desde 0
+		game.getProfiler().begin(Phase.MAP);
+		renderer.render(cam); // La cámara ya está interpolada para este frame
+        game.getProfiler().end(Phase.MAP);
+        game.getProfiler().addRenderCalls(renderer.getRenderCalls());
         batch.begin();
 	}
 	
 	/**
-	 * Actualiza el mapa con respecto a la cámara.
+	 * Actualiza el mapa.
 	 */
 	@Override
     public void act (float delta) {
     	super.act(delta);
-    	renderer.setView(cam);
     }
 	
+	/**
+	 * Si la celda dada es un obstáculo. Fuera del mapa no hay obstáculos.
+	 * @param cellX
+	 * @param cellY
+	 */
+	public boolean isObstacle(int cellX, int cellY) {
+		if(cellX < 0 || cellY < 0 || cellX >= width || cellY >= height) return false;
+		int index = cellY*width + cellX;
+		return (obstacles[index >>> 6] & (1L << (index & 63))) != 0;
+	}
+	
+	/**
+	 * Devuelve si una celda está ocupada por un obstáculo con respecto a un rectángulo de colisión.
+	 * @param bounds Rectángulo de colisión con el que se comparará.
+	 * @param cellX Celda que se quiere comprobar en el eje x.
+	 * @param cellY Celda que se quiere comprobar en el eje y.
+	 */
+	public boolean isFree(Rectangle bounds, int cellX, int cellY) {
+		if(!isObstacle(cellX, cellY)) return true;
+		// Mismo criterio que Rectangle.overlaps con el rectángulo de la celda
+		float x = cellX*tileSize, y = cellY*tileSize;
+		return !(x < bounds.x + bounds.width && x + tileSize > bounds.x
+				&& y < bounds.y + bounds.height && y + tileSize > bounds.y);
+	}
+	
 	/**
 	 * Devuelve si una posición está ocupada por un obstáculo con respecto a un rectángulo de colisión.
 	 * @param bounds Rectángulo de colisión con el que se comparará.
 	 * @param pos Posición que se quiere comprobar.
 	 */
 	public boolean isFree(Rectangle bounds, Vector2 pos) {
-		if(obstacles.containsKey(pos)) {
-			Rectangle rec = obstacles.get(pos);
-			if( rec != null && rec.overlaps(bounds)) return false;
-		}
-		return true;
+		return isFree(bounds, (int)pos.x, (int)pos.y);
 	}
 	
 	/**
@@ -149,25 +193,21 @@ public class Background extends Actor {
 	 * @param posY
 	 */
 	public boolean isFree(float posX, float posY) {
-		return (obstacles.get(new Vector2((int)(posX/tileSize), (int)(posY/tileSize))) == null);
+		return !isObstacle((int)(posX/tileSize), (int)(posY/tileSize));
 	}
 	
 	/**
 	 * Devuelve si un rectángulo de colisión choca con algún obstácuclo.
+	 * Sólo se comprueban las celdas de sus esquinas.
 	 */
 	public boolean isFree(Rectangle bounds) {
-		boolean free = true;
 		int posX1, posY1, posX2, posY2;
 		posX1 = (int)  (bounds.x / tileSize);
 		posY1 = (int)  (bounds.y / tileSize);
 		posX2 = (int) ((bounds.x + bounds.width ) / tileSize);
 		posY2 = (int) ((bounds.y + bounds.height) / tileSize);
-		if		(!isFree(bounds, new Vector2(posX1, posY1))) free = false;
-		else if (!isFree(bounds, new Vector2(posX1, posY2))) free = false;
-		else if (!isFree(bounds, new Vector2(posX2, posY1))) free = false;
-		else if (!isFree(bounds, new Vector2(posX2, posY2))) free = false;
-		
-		return free;
+		return isFree(bounds, posX1, posY1) && isFree(bounds, posX1, posY2)
+				&& isFree(bounds, posX2, posY1) && isFree(bounds, posX2, posY2);
 	}
 	
 	/**
@@ -179,6 +219,24 @@ public class Background extends Actor {
 		return new Vector2(posX/tileSize, posY/tileSize);
 	}
 	
+	/**
+	 * Muestra u oculta la capa de colisión del mapa.
+	 */
+	public void setCollisionVisible(boolean visible) {
+		collision.setVisible(visible);
+	}
+	
+	public boolean isCollisionVisible() {
+		return collision.isVisible();
+	}
+	
+	/**
+	 * Devuelve los trozos del mapa dibujados en el último frame (0 sin ventana).
+	 */
+	public int getDrawnChunks() {
+		return renderer == null ? 0 : renderer.getDrawnChunks();
+	}
+	
 	/**
 	 * Devuelve la capa de colisión del mapa.
 	 */
@@ -191,7 +249,7 @@ public class Background extends Actor {
 	 */
 	public void dispose(){
 		map.dispose();
-		renderer.dispose();
+		if(renderer != null) renderer.dispose();
 	}
 	
 }
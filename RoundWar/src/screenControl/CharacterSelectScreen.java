@@ -7,20 +7,18 @@ package screenControl;
 
 import java.util.ArrayList;
 
+import roundwar.GameAtlas;
 import Buttons.NewCharacterButton;
 import Entities.LivingEntity;
 import PopUps.CharacterInfoPopUp;
 import ProfileSettings.Profile;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.InputListener;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 
 public class CharacterSelectScreen extends AbstractScreen {
-	private Texture tcharacters;
 	private TextureRegion character;
 	private LivingEntity.Type type;
 	private CharacterInfoPopUp popUp;
@@ -55,8 +53,7 @@ public class CharacterSelectScreen extends AbstractScreen {
 		} );
 		
 		// Botones de selección de nuevo personaje
-		tcharacters = new Texture(Gdx.files.internal("images/front.png"));
-		TextureRegion[][] tmp = TextureRegion.split(tcharacters, 64, 64);
+		TextureRegion[][] tmp = GameAtlas.findRegion("images/front").split(64, 64);
 		buttons = new ArrayList<NewCharacterButton>();
 		
 		for(int i = 0; i < 12; i++) {
@@ -122,7 +119,6 @@ public class CharacterSelectScreen extends AbstractScreen {
 	 */
 	@Override
 	public void dispose() {
-		tcharacters.dispose();
 		popUp.dispose();
 		super.dispose();
 	}
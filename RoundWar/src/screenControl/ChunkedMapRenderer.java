@@ -0,0 +1,312 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package screenControl;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapLayers;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell;
+import com.badlogic.gdx.maps.tiled.tiles.AnimatedTiledMapTile;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Dibuja un mapa ortogonal con sus capas de tiles preparadas al cargarlo. Cada
+ * capa se divide en trozos de CHUNK x CHUNK celdas y cada trozo se guarda una
+ * sola vez en un SpriteCache, así que en cada frame sólo se mandan a dibujar
+ * los trozos que ve la cámara, sin volver a enviar sus vértices.
+ *
+ * Los tiles animados no se pueden guardar y se dibujan en cada frame con el
+ * SpriteBatch, después de los trozos de su capa. Una capa oculta
+ * (MapLayer.setVisible) no se dibuja, igual que con OrthogonalTiledMapRenderer.
+ */
+public class ChunkedMapRenderer implements Disposable {
+	/** Celdas por lado de cada trozo */
+	public static final int CHUNK = 16;
+	/** Tiles que caben en un SpriteCache con índices de 16 bits */
+	private static final int CACHE_SIZE = 5460;
+	private static final int VERTEX_SIZE = 5, SPRITE_SIZE = 4*VERTEX_SIZE;
+
+	private final TiledMap map;
+	private final SpriteBatch batch;
+	/** Capas de tiles del mapa, en orden de dibujo */
+	private final Array<TiledMapTileLayer> layers;
+	/** Por capa y trozo (fila a fila): SpriteCache donde está y su id, o -1 si está vacío */
+	private final int[][] chunkCache, chunkId;
+	/** Por capa: celdas con tiles animados (columna y fila), o null si no tiene */
+	private final int[][] animated;
+	private final Array<SpriteCache> caches;
+	/** Tiles guardados en el último SpriteCache */
+	private int cacheUsed;
+	private final float[] vertices = new float[SPRITE_SIZE];
+	private int chunkCols, chunkRows;
+	private float tileWidth, tileHeight;
+	private int drawnChunks, renderCalls;
+
+	/**
+	 * Prepara todas las capas de tiles del mapa.
+	 * @param map Mapa a dibujar.
+	 * @param batch Batch con el que se dibujan los tiles animados.
+	 */
+	public ChunkedMapRenderer(TiledMap map, SpriteBatch batch) {
+		this.map = map;
+		this.batch = batch;
+		layers = new Array<TiledMapTileLayer>();
+		MapLayers mapLayers = map.getLayers();
+		for(int i = 0; i < mapLayers.getCount(); i++) {
+			MapLayer layer = mapLayers.get(i);
+			if(layer instanceof TiledMapTileLayer) layers.add((TiledMapTileLayer) layer);
+		}
+		chunkCache = new int[layers.size][];
+		chunkId = new int[layers.size][];
+		animated = new int[layers.size][];
+		caches = new Array<SpriteCache>();
+		for(int i = 0; i < layers.size; i++) {
+			bake(i);
+		}
+	}
+
+	/**
+	 * Guarda una capa en trozos en los SpriteCache.
+	 */
+	private void bake(int index) {
+		TiledMapTileLayer layer = layers.get(index);
+		tileWidth = layer.getTileWidth();
+		tileHeight = layer.getTileHeight();
+		chunkCols = (layer.getWidth() + CHUNK - 1)/CHUNK;
+		chunkRows = (layer.getHeight() + CHUNK - 1)/CHUNK;
+		int[] cacheOf = new int[chunkCols*chunkRows];
+		int[] idOf = new int[chunkCols*chunkRows];
+		float color = Color.toFloatBits(1, 1, 1, layer.getOpacity());
+		int animatedCount = 0;
+
+		for(int chunkY = 0; chunkY < chunkRows; chunkY++) {
+			for(int chunkX = 0; chunkX < chunkCols; chunkX++) {
+				int chunk = chunkY*chunkCols + chunkX;
+				int endX = Math.min(layer.getWidth(), (chunkX + 1)*CHUNK);
+				int endY = Math.min(layer.getHeight(), (chunkY + 1)*CHUNK);
+				int tiles = 0;
+				for(int y = chunkY*CHUNK; y < endY; y++) {
+					for(int x = chunkX*CHUNK; x < endX; x++) {
+						Cell cell = layer.getCell(x, y);
+						if(cell == null || cell.getTile() == null) continue;
+						if(cell.getTile() instanceof AnimatedTiledMapTile) animatedCount++;
+						else tiles++;
+					}
+				}
+				if(tiles == 0) {
+					cacheOf[chunk] = idOf[chunk] = -1;
+					continue;
+				}
+
+				SpriteCache cache = cacheFor(tiles);
+				cache.beginCache();
+				for(int y = chunkY*CHUNK; y < endY; y++) {
+					for(int x = chunkX*CHUNK; x < endX; x++) {
+						Cell cell = layer.getCell(x, y);
+						if(cell == null || cell.getTile() == null || cell.getTile() instanceof AnimatedTiledMapTile) continue;
+						TextureRegion region = cell.getTile().getTextureRegion();
+						setVertices(cell, region, x*tileWidth, y*tileHeight, color);
+						cache.add(region.getTexture(), vertices, 0, SPRITE_SIZE);
+					}
+				}
+				cacheOf[chunk] = caches.size - 1;
+				idOf[chunk] = cache.endCache();
+			}
+		}
+		chunkCache[index] = cacheOf;
+		chunkId[index] = idOf;
+
+		if(animatedCount > 0) {
+			int[] cells = new int[animatedCount*2];
+			int next = 0;
+			for(int y = 0; y < layer.getHeight(); y++) {
+				for(int x = 0; x < layer.getWidth(); x++) {
+					Cell cell = layer.getCell(x, y);
+					if(cell != null && cell.getTile() instanceof AnimatedTiledMapTile) {
+						cells[next++] = x;
+						cells[next++] = y;
+					}
+				}
+			}
+			animated[index] = cells;
+		}
+	}
+
+	/**
+	 * Devuelve el SpriteCache donde se guardará el siguiente trozo, creando uno
+	 * nuevo si en el último no caben sus tiles.
+	 */
+	private SpriteCache cacheFor(int tiles) {
+		if(caches.size == 0 || cacheUsed + tiles > CACHE_SIZE) {
+			caches.add(new SpriteCache(CACHE_SIZE, true));
+			cacheUsed = 0;
+		}
+		cacheUsed += tiles;
+		return caches.peek();
+	}
+
+	/**
+	 * Rellena los vértices de un tile, volteado y girado como indique su celda
+	 * (igual que OrthogonalTiledMapRenderer).
+	 */
+	private void setVertices(Cell cell, TextureRegion region, float x, float y, float color) {
+		float x2 = x + region.getRegionWidth();
+		float y2 = y + region.getRegionHeight();
+		float[] v = vertices;
+		v[0] = x;  v[1] = y;  v[2] = color;  v[3] = region.getU();  v[4] = region.getV2();
+		v[5] = x;  v[6] = y2; v[7] = color;  v[8] = region.getU();  v[9] = region.getV();
+		v[10] = x2; v[11] = y2; v[12] = color; v[13] = region.getU2(); v[14] = region.getV();
+		v[15] = x2; v[16] = y;  v[17] = color; v[18] = region.getU2(); v[19] = region.getV2();
+
+		if(cell.getFlipHorizontally()) {
+			swap(v, 3, 13);
+			swap(v, 8, 18);
+		}
+		if(cell.getFlipVertically()) {
+			swap(v, 4, 14);
+			swap(v, 9, 19);
+		}
+		switch(cell.getRotation()) {
+			case Cell.ROTATE_90:
+				rotate(v, 4, 19, 14, 9);
+				rotate(v, 3, 18, 13, 8);
+				break;
+			case Cell.ROTATE_180:
+				swap(v, 3, 13);
+				swap(v, 8, 18);
+				swap(v, 4, 14);
+				swap(v, 9, 19);
+				break;
+			case Cell.ROTATE_270:
+				rotate(v, 4, 9, 14, 19);
+				rotate(v, 3, 8, 13, 18);
+				break;
+		}
+	}
+
+	private static void swap(float[] v, int a, int b) {
+		float temp = v[a];
+		v[a] = v[b];
+		v[b] = temp;
+	}
+
+	/**
+	 * Mueve v[a] a v[b], v[b] a v[c], v[c] a v[d] y v[d] a v[a].
+	 */
+	private static void rotate(float[] v, int a, int b, int c, int d) {
+		float temp = v[d];
+		v[d] = v[c];
+		v[c] = v[b];
+		v[b] = v[a];
+		v[a] = temp;
+	}
+
+	/**
+	 * Dibuja los trozos de las capas visibles que ve la cámara. El SpriteBatch
+	 * no debe estar empezado.
+	 */
+	public void render(OrthographicCamera cam) {
+		float halfWidth = cam.viewportWidth*cam.zoom/2, halfHeight = cam.viewportHeight*cam.zoom/2;
+		int firstX = Math.max(0, (int) Math.floor((cam.position.x - halfWidth)/(tileWidth*CHUNK)));
+		int firstY = Math.max(0, (int) Math.floor((cam.position.y - halfHeight)/(tileHeight*CHUNK)));
+		int lastX = Math.min(chunkCols - 1, (int) Math.floor((cam.position.x + halfWidth)/(tileWidth*CHUNK)));
+		int lastY = Math.min(chunkRows - 1, (int) Math.floor((cam.position.y + halfHeight)/(tileHeight*CHUNK)));
+		drawnChunks = renderCalls = 0;
+		if(firstX > lastX || firstY > lastY) return;
+
+		Gdx.gl.glEnable(GL20.GL_BLEND);
+		Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+		SpriteCache current = null;
+		for(int i = 0; i < layers.size; i++) {
+			if(!layers.get(i).isVisible()) continue;
+			int[] cacheOf = chunkCache[i], idOf = chunkId[i];
+			for(int chunkY = firstY; chunkY <= lastY; chunkY++) {
+				for(int chunkX = firstX; chunkX <= lastX; chunkX++) {
+					int chunk = chunkY*chunkCols + chunkX;
+					if(idOf[chunk] < 0) continue;
+					SpriteCache cache = caches.get(cacheOf[chunk]);
+					if(cache != current) {
+						if(current != null) current.end();
+						current = cache;
+						current.setProjectionMatrix(cam.combined);
+						current.begin();
+					}
+					current.draw(idOf[chunk]);
+					drawnChunks++;
+				}
+			}
+			if(animated[i] != null) {
+				if(current != null) current.end();
+				current = null;
+				renderAnimated(i, firstX*CHUNK, firstY*CHUNK, (lastX + 1)*CHUNK - 1, (lastY + 1)*CHUNK - 1, cam);
+				Gdx.gl.glEnable(GL20.GL_BLEND); // El batch lo desactiva al terminar
+			}
+		}
+		if(current != null) current.end();
+		Gdx.gl.glDisable(GL20.GL_BLEND);
+		renderCalls += drawnChunks;
+	}
+
+	/**
+	 * Dibuja con el batch los tiles animados de una capa dentro de las celdas dadas.
+	 */
+	private void renderAnimated(int index, int minX, int minY, int maxX, int maxY, OrthographicCamera cam) {
+		TiledMapTileLayer layer = layers.get(index);
+		float color = Color.toFloatBits(1, 1, 1, layer.getOpacity());
+		int[] cells = animated[index];
+		AnimatedTiledMapTile.updateAnimationBaseTime();
+		batch.setProjectionMatrix(cam.combined);
+		batch.begin();
+		for(int i = 0; i < cells.length; i += 2) {
+			int x = cells[i], y = cells[i + 1];
+			if(x < minX || x > maxX || y < minY || y > maxY) continue;
+			Cell cell = layer.getCell(x, y);
+			TiledMapTile tile = cell.getTile();
+			TextureRegion region = tile.getTextureRegion();
+			setVertices(cell, region, x*tileWidth, y*tileHeight, color);
+			batch.draw(region.getTexture(), vertices, 0, SPRITE_SIZE);
+		}
+		batch.end();
+		renderCalls += batch.renderCalls;
+	}
+
+	/**
+	 * Devuelve los trozos dibujados en el último frame.
+	 */
+	public int getDrawnChunks() {
+		return drawnChunks;
+	}
+
+	/**
+	 * Devuelve las llamadas de dibujo del último frame: una por trozo (y textura
+	 * dentro del trozo) más las del batch de los tiles animados.
+	 */
+	public int getRenderCalls() {
+		return renderCalls;
+	}
+
+	public TiledMap getMap() {
+		return map;
+	}
+
+	@Override
+	public void dispose() {
+		for(SpriteCache cache : caches) {
+			cache.dispose();
+		}
+		caches.clear();
+	}
+}
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package screenControl;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.MapProperties;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Base64Coder;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.XmlReader;
+import com.badlogic.gdx.utils.XmlReader.Element;
+
+/**
+ * Carga de un mapa TMX sólo la capa de colisión, sin imágenes, para el modo sin
+ * ventana. Los tiles no tienen textura pero sí las propiedades de su tileset
+ * (init, spawn), así que Background y la rejilla de navegación los usan igual
+ * que con el TmxMapLoader.
+ */
+public class CollisionMapLoader {
+	private static final int FLIPPED = 0x80000000 | 0x40000000 | 0x20000000;
+	private final XmlReader xml = new XmlReader();
+
+	/**
+	 * Carga la capa "collision" del mapa dado.
+	 * @param path Dirección interna del mapa.
+	 */
+	public TiledMap load(String path) {
+		FileHandle tmxFile = Gdx.files.internal(path);
+		try {
+			Element root = xml.parse(tmxFile);
+			int tileWidth = root.getIntAttribute("tilewidth");
+			int tileHeight = root.getIntAttribute("tileheight");
+
+			// Propiedades de los tiles de cada tileset
+			IntMap<MapProperties> properties = new IntMap<MapProperties>();
+			for(Element tileset : root.getChildrenByName("tileset")) {
+				int firstGid = tileset.getIntAttribute("firstgid", 1);
+				String source = tileset.getAttribute("source", null);
+				if(source != null) {
+					tileset = xml.parse(tmxFile.parent().child(source));
+				}
+				for(Element tile : tileset.getChildrenByName("tile")) {
+					Element props = tile.getChildByName("properties");
+					if(props == null) continue;
+					MapProperties tileProperties = new MapProperties();
+					for(Element property : props.getChildrenByName("property")) {
+						tileProperties.put(property.getAttribute("name"), property.getAttribute("value", null));
+					}
+					properties.put(firstGid + tile.getIntAttribute("id"), tileProperties);
+				}
+			}
+
+			TiledMap map = new TiledMap();
+			for(Element element : root.getChildrenByName("layer")) {
+				if("collision".equals(element.getAttribute("name", null))) {
+					map.getLayers().add(loadLayer(element, tileWidth, tileHeight, properties));
+				}
+			}
+			if(map.getLayers().getCount() == 0) {
+				throw new GdxRuntimeException("No collision layer in " + path);
+			}
+			return map;
+		} catch(IOException e) {
+			throw new GdxRuntimeException("Couldn't load map " + path, e);
+		}
+	}
+
+	private TiledMapTileLayer loadLayer(Element element, int tileWidth, int tileHeight,
+			IntMap<MapProperties> properties) throws IOException {
+		int width = element.getIntAttribute("width");
+		int height = element.getIntAttribute("height");
+		TiledMapTileLayer layer = new TiledMapTileLayer(width, height, tileWidth, tileHeight);
+		layer.setName("collision");
+
+		int[] ids = readIds(element.getChildByName("data"), width*height);
+		IntMap<TiledMapTile> tiles = new IntMap<TiledMapTile>();
+		for(int row = 0; row < height; row++) {
+			for(int x = 0; x < width; x++) {
+				int gid = ids[row*width + x] & ~FLIPPED;
+				if(gid == 0) continue;
+				TiledMapTile tile = tiles.get(gid);
+				if(tile == null) {
+					tile = new StaticTiledMapTile(new TextureRegion());
+					tile.setId(gid);
+					MapProperties tileProperties = properties.get(gid);
+					if(tileProperties != null) tile.getProperties().putAll(tileProperties);
+					tiles.put(gid, tile);
+				}
+				Cell cell = new Cell();
+				cell.setTile(tile);
+				layer.setCell(x, height - 1 - row, cell); // En el TMX la primera fila es la de arriba
+			}
+		}
+		return layer;
+	}
+
+	/**
+	 * Lee los ids de los tiles de una capa en cualquiera de las codificaciones de Tiled.
+	 */
+	private int[] readIds(Element data, int count) throws IOException {
+		int[] ids = new int[count];
+		String encoding = data.getAttribute("encoding", null);
+		if(encoding == null) { // XML
+			Array<Element> tiles = data.getChildrenByName("tile");
+			for(int i = 0; i < tiles.size && i < count; i++) {
+				ids[i] = (int) Long.parseLong(tiles.get(i).getAttribute("gid", "0"));
+			}
+		} else if(encoding.equals("csv")) {
+			String[] values = data.getText().split(",");
+			for(int i = 0; i < values.length && i < count; i++) {
+				ids[i] = (int) Long.parseLong(values[i].trim());
+			}
+		} else if(encoding.equals("base64")) {
+			InputStream input = new ByteArrayInputStream(Base64Coder.decode(data.getText().trim()));
+			String compression = data.getAttribute("compression", null);
+			if("gzip".equals(compression)) input = new GZIPInputStream(input);
+			else if("zlib".equals(compression)) input = new InflaterInputStream(input);
+			DataInputStream stream = new DataInputStream(input);
+			try {
+				for(int i = 0; i < count; i++) {
+					ids[i] = Integer.reverseBytes(stream.readInt()); // Little endian
+				}
+			} finally {
+				stream.close();
+			}
+		} else {
+			throw new GdxRuntimeException("Unsupported map encoding: " + encoding);
+		}
+		return ids;
+	}
+}
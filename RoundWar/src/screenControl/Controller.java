@@ -5,24 +5,21 @@
  *******************************************************************************/
 package screenControl;
 
-import Entities.LivingEntity.Status;
-import Entities.MainCharacter;
-
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.scenes.scene2d.ui.Touchpad;
 
 public class Controller extends Touchpad{
 
     private static TouchpadStyle touchpadStyle;
-    MainCharacter mainpj;
+    private final PlayerInput input;
  
     /**
      * Constructor.
-     * @param mainpj
+     * @param input Órdenes del jugador donde se apunta la posición del controlador.
      */
-    public Controller(MainCharacter mainpj){
+    public Controller(PlayerInput input){
     	super(10, Controller.getTouchPadStyle());
-    	this.mainpj = mainpj;
+    	this.input = input;
     	
         setBounds(0, 0, Gdx.graphics.getWidth()*0.2f, Gdx.graphics.getWidth()*0.2f);
         
@@ -47,9 +44,9 @@ public class Controller extends Touchpad{
     public void act (float delta) {
     	super.act(delta);
     	if(isTouched()){ // Si se está usando, mover al personaje principal.
-    		mainpj.moveEntity(getKnobPercentX(), getKnobPercentY(), true);
+    		input.setKnob(getKnobPercentX(), getKnobPercentY());
     	}  else { // Poner el personaje en estado de espera.
-    		mainpj.setStatus(Status.ILDE);
+    		input.releaseKnob();
     	}
     		
     }
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package screenControl;
+
+import roundwar.RoundWar;
+import screenControl.FrameProfiler.Phase;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+
+/**
+ * Sigue una partida del modo sin fin: cuántos enemigos hay y ha llegado a
+ * haber, los percentiles del tiempo de frame y con cuántos enemigos el p95
+ * de los últimos FrameProfiler.HISTORY frames pasa por primera vez del
+ * presupuesto. Se usa el p95 y no un solo frame para que un pico suelto (la
+ * recolección de basura, cargar algo) no cuente como que la partida no llega.
+ */
+public class EndlessMonitor {
+	/** Frames entre dos cálculos de los percentiles */
+	private static final int CHECK_INTERVAL = 30;
+
+	private final float budget;
+	private int frames, enemies, peakEnemies, wave;
+	private final float[] percentiles = new float[3];
+	/** Primer momento en el que se pasó del presupuesto, con breachEnemies < 0 si aún no */
+	private int breachEnemies = -1, breachWave, breachTicks;
+	private float breachMs;
+	private final StringBuilder text = new StringBuilder(256);
+
+	/**
+	 * Constructor.
+	 * @param budget Milisegundos por frame que no se deberían superar.
+	 */
+	public EndlessMonitor(float budget) {
+		this.budget = budget;
+	}
+
+	/**
+	 * Se llama al terminar cada frame, después de FrameProfiler.endFrame.
+	 * @param enemies Enemigos en juego.
+	 * @param wave Oleada actual.
+	 * @param ticks Pasos de simulación hechos.
+	 */
+	public void update(FrameProfiler profiler, int enemies, int wave, int ticks) {
+		this.enemies = enemies;
+		this.wave = wave;
+		peakEnemies = Math.max(peakEnemies, enemies);
+		if(++frames % CHECK_INTERVAL != 0) return;
+		percentiles[0] = profiler.getPercentile(Phase.FRAME, 0.5f);
+		percentiles[1] = profiler.getPercentile(Phase.FRAME, 0.95f);
+		percentiles[2] = profiler.getPercentile(Phase.FRAME, 0.99f);
+		if(breachEnemies < 0 && profiler.getFrames() >= FrameProfiler.HISTORY && percentiles[1] > budget) {
+			breachEnemies = enemies;
+			breachWave = wave;
+			breachTicks = ticks;
+			breachMs = percentiles[1];
+			Gdx.app.log(RoundWar.LOG, "Frame budget of " + budget + " ms first exceeded with " + enemies
+					+ " enemies (wave " + wave + ", tick " + ticks + ", p95 " + breachMs + " ms)");
+		}
+	}
+
+	/**
+	 * Dibuja los datos de la partida abajo a la izquierda, encima de los fps. La proyección del
+	 * batch debe estar en píxeles de pantalla y el batch sin empezar.
+	 * @param attacks Ataques en juego.
+	 */
+	public void draw(SpriteBatch batch, BitmapFont font, int attacks) {
+		text.setLength(0);
+		text.append("Wave ").append(wave).append("   enemies ").append(enemies)
+				.append(" (peak ").append(peakEnemies).append(")   attacks ").append(attacks);
+		text.append("\nframe p50 / p95 / p99: ");
+		for(int i = 0; i < percentiles.length; i++) {
+			if(i > 0) text.append(" / ");
+			FrameProfiler.appendMs(text, percentiles[i]);
+		}
+		text.append(" ms (budget ");
+		FrameProfiler.appendMs(text, budget);
+		text.append(')');
+		if(breachEnemies >= 0) {
+			text.append("\nover budget from ").append(breachEnemies).append(" enemies (wave ").append(breachWave).append(')');
+		}
+
+		float scaleX = font.getScaleX(), scaleY = font.getScaleY();
+		font.setScale(scaleX*0.6f, scaleY*0.6f);
+		batch.begin();
+		font.drawMultiLine(batch, text, 20, 90);
+		batch.end();
+		font.setScale(scaleX, scaleY);
+	}
+
+	public int getPeakEnemies() {
+		return peakEnemies;
+	}
+
+	/**
+	 * Devuelve los enemigos en juego cuando se pasó del presupuesto por primera vez, o -1 si no se ha pasado.
+	 */
+	public int getBreachEnemies() {
+		return breachEnemies;
+	}
+
+	public int getBreachWave() {
+		return breachWave;
+	}
+
+	public int getBreachTicks() {
+		return breachTicks;
+	}
+
+	/**
+	 * Devuelve el p95 del tiempo de frame cuando se pasó del presupuesto.
+	 */
+	public float getBreachMs() {
+		return breachMs;
+	}
+
+	public float getBudget() {
+		return budget;
+	}
+}
@@ -0,0 +1,357 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package screenControl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+import roundwar.RoundWar;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
+
+/**
+ * Mide cuánto tarda cada fase de los frames de GameScreen. Guarda los últimos
+ * HISTORY frames para calcular percentiles (p50, p95 y p99), los muestra en
+ * pantalla con una gráfica del tiempo de cada frame y puede escribir una fila
+ * por frame en un fichero CSV. También cuenta las llamadas de dibujo de cada
+ * frame (cada vez que un batch se vacía, que es también cada cambio de
+ * textura) y los actores dibujados y descartados por estar fuera de la
+ * cámara. Medir y dibujar el texto no crea objetos.
+ */
+public class FrameProfiler {
+	/**
+	 * Fases de un frame. Si en un frame se hacen varios pasos de simulación, se
+	 * suma lo que tarda cada fase en todos ellos.
+	 */
+	public enum Phase {
+		/** stage.act: entidades y ataques */
+		ACT("act"),
+		/** Scene.update: oleadas */
+		SCENE("scene"),
+		/** Búsquedas de camino repartidas entre frames */
+		PATHS("paths"),
+		/** Hud.act y órdenes del jugador */
+		HUD_ACT("hud act"),
+		/** Background.draw: el mapa */
+		MAP("map"),
+		/** stage.draw sin el mapa */
+		DRAW("draw"),
+		/** Hud.draw */
+		HUD("hud"),
+		/** Pop ups de pausa, fin de partida y estadísticas */
+		POPUPS("popups"),
+		/** El frame completo */
+		FRAME("frame");
+
+		private final String label;
+
+		private Phase(String label) {
+			this.label = label;
+		}
+
+		public String getLabel() {
+			return label;
+		}
+	}
+
+	/** Frames guardados para los percentiles y la gráfica */
+	public static final int HISTORY = 240;
+	/** Frames entre dos cálculos de los percentiles del overlay */
+	private static final int STATS_INTERVAL = 30;
+	/** Tiempo de un frame a 60 fps y tope de la gráfica, en milisegundos */
+	private static final float TARGET_MS = 1000f/60, GRAPH_MAX_MS = 50;
+	private static final float[] QUANTILES = {0.5f, 0.95f, 0.99f};
+	private static final Phase[] PHASES = Phase.values();
+
+	private final long[] started = new long[PHASES.length];
+	private final long[] current = new long[PHASES.length];
+	/** Milisegundos de cada fase en los últimos frames, en anillo */
+	private final float[][] history = new float[PHASES.length][HISTORY];
+	private final float[][] percentiles = new float[PHASES.length][QUANTILES.length];
+	private final float[] sorted = new float[HISTORY];
+	/** Llamadas de dibujo del frame actual y de los últimos frames */
+	private int renderCalls;
+	private final int[] callHistory = new int[HISTORY];
+	/** Actores dibujados y descartados en los últimos frames */
+	private int drawnActors, culledActors;
+	private final int[] drawnHistory = new int[HISTORY], culledHistory = new int[HISTORY];
+	private long frameStart;
+	private int frames, statsFrame = -1;
+	private boolean visible;
+	private final StringBuilder text = new StringBuilder(512);
+	private ShapeRenderer shapes;
+	private Writer csv;
+	private char[] row = new char[256];
+
+	/**
+	 * Empieza a medir un frame.
+	 */
+	public void beginFrame() {
+		Arrays.fill(current, 0);
+		renderCalls = drawnActors = culledActors = 0;
+		frameStart = System.nanoTime();
+	}
+
+	/**
+	 * Empieza a medir una fase.
+	 */
+	public void begin(Phase phase) {
+		started[phase.ordinal()] = System.nanoTime();
+	}
+
+	/**
+	 * Termina de medir una fase, sumando lo que ha tardado al frame actual.
+	 */
+	public void end(Phase phase) {
+		current[phase.ordinal()] += System.nanoTime() - started[phase.ordinal()];
+	}
+
+	/**
+	 * Suma llamadas de dibujo al frame actual (por ejemplo SpriteBatch.renderCalls tras terminar el batch).
+	 */
+	public void addRenderCalls(int calls) {
+		renderCalls += calls;
+	}
+
+	/**
+	 * Indica cuántos actores se han dibujado y cuántos se han descartado por estar fuera de la cámara.
+	 */
+	public void setActors(int drawn, int culled) {
+		drawnActors = drawn;
+		culledActors = culled;
+	}
+
+	/**
+	 * Termina el frame: lo guarda en el historial y, si se está exportando, en el CSV.
+	 * @param delta Tiempo desde el frame anterior (en segundos).
+	 * @param ticks Pasos de simulación hechos hasta ahora.
+	 */
+	public void endFrame(float delta, int ticks) {
+		current[Phase.FRAME.ordinal()] = System.nanoTime() - frameStart;
+		current[Phase.DRAW.ordinal()] -= current[Phase.MAP.ordinal()]; // El mapa se dibuja dentro del stage
+		int index = frames % HISTORY;
+		for(int i = 0; i < PHASES.length; i++) {
+			history[i][index] = current[i]/1000000f;
+		}
+		callHistory[index] = renderCalls;
+		drawnHistory[index] = drawnActors;
+		culledHistory[index] = culledActors;
+		if(csv != null) writeRow(delta, ticks, index);
+		frames++;
+	}
+
+	/**
+	 * Devuelve los frames medidos.
+	 */
+	public int getFrames() {
+		return frames;
+	}
+
+	/**
+	 * Devuelve los milisegundos que tarda una fase en la proporción q (entre 0 y 1)
+	 * de los últimos frames, o 0 si aún no se ha medido ninguno.
+	 */
+	public float getPercentile(Phase phase, float q) {
+		int count = Math.min(frames, HISTORY);
+		if(count == 0) return 0;
+		System.arraycopy(history[phase.ordinal()], 0, sorted, 0, count);
+		Arrays.sort(sorted, 0, count);
+		int rank = (int) Math.ceil(q*count) - 1;
+		return sorted[Math.max(0, Math.min(count - 1, rank))];
+	}
+
+	/**
+	 * Muestra u oculta el overlay con los percentiles y la gráfica.
+	 */
+	public void setVisible(boolean visible) {
+		this.visible = visible;
+	}
+
+	public boolean isVisible() {
+		return visible;
+	}
+
+	/**
+	 * Dibuja los fps o, si el overlay está visible, los percentiles de cada fase y la
+	 * gráfica de los últimos frames. La proyección del batch debe estar en píxeles
+	 * de pantalla y el batch sin empezar.
+	 */
+	public void draw(SpriteBatch batch, BitmapFont font) {
+		text.setLength(0);
+		text.append("FPS:   ").append(Gdx.graphics.getFramesPerSecond());
+		if(!visible) {
+			batch.begin();
+			font.draw(batch, text, 20, 30);
+			batch.end();
+			return;
+		}
+
+		if(statsFrame < 0 || frames - statsFrame >= STATS_INTERVAL) updateStats();
+		text.append("   (p50 / p95 / p99 ms, ").append(Math.min(frames, HISTORY)).append(" frames)");
+		for(int i = 0; i < PHASES.length; i++) {
+			text.append('\n').append(PHASES[i].getLabel()).append(": ");
+			for(int j = 0; j < QUANTILES.length; j++) {
+				if(j > 0) text.append(" / ");
+				appendMs(text, percentiles[i][j]);
+			}
+		}
+		int last = (frames + HISTORY - 1) % HISTORY;
+		text.append("\ndraw calls: ").append(callHistory[last])
+				.append(" (max ").append(maxRenderCalls()).append(')');
+		text.append("\nactors: ").append(drawnHistory[last]).append(" drawn, ")
+				.append(culledHistory[last]).append(" culled");
+
+		float width = Gdx.graphics.getWidth(), height = Gdx.graphics.getHeight();
+		float x = width*0.25f, graphHeight = height*0.15f, graphY = height*0.02f;
+		drawGraph(batch, x, graphY, width*0.5f, graphHeight);
+
+		float scaleX = font.getScaleX(), scaleY = font.getScaleY();
+		font.setScale(scaleX*0.6f, scaleY*0.6f);
+		batch.begin();
+		font.drawMultiLine(batch, text, x, height*0.98f);
+		batch.end();
+		font.setScale(scaleX, scaleY);
+	}
+
+	/**
+	 * Dibuja una barra por frame con lo que ha tardado: verde si llega a 60 fps,
+	 * amarilla si llega a 30 y roja si no. La línea horizontal marca los 60 fps.
+	 */
+	private void drawGraph(SpriteBatch batch, float x, float y, float width, float height) {
+		if(shapes == null) shapes = new ShapeRenderer();
+		shapes.setProjectionMatrix(batch.getProjectionMatrix());
+		shapes.begin(ShapeType.Line);
+		int count = Math.min(frames, HISTORY);
+		float[] frame = history[Phase.FRAME.ordinal()];
+		float step = width/HISTORY;
+		for(int i = 0; i < count; i++) {
+			float ms = frame[(frames - count + i) % HISTORY];
+			if(ms <= TARGET_MS) shapes.setColor(0, 1, 0, 1);
+			else if(ms <= TARGET_MS*2) shapes.setColor(1, 1, 0, 1);
+			else shapes.setColor(1, 0, 0, 1);
+			float barX = x + i*step;
+			shapes.line(barX, y, barX, y + Math.min(ms, GRAPH_MAX_MS)/GRAPH_MAX_MS*height);
+		}
+		shapes.setColor(1, 1, 1, 1);
+		float target = y + TARGET_MS/GRAPH_MAX_MS*height;
+		shapes.line(x, target, x + width, target);
+		shapes.rect(x, y, width, height);
+		shapes.end();
+	}
+
+	/**
+	 * Devuelve el máximo de llamadas de dibujo de los últimos frames.
+	 */
+	public int maxRenderCalls() {
+		int max = 0;
+		for(int i = Math.min(frames, HISTORY) - 1; i >= 0; i--) {
+			max = Math.max(max, callHistory[i]);
+		}
+		return max;
+	}
+
+	private void updateStats() {
+		for(int i = 0; i < PHASES.length; i++) {
+			for(int j = 0; j < QUANTILES.length; j++) {
+				percentiles[i][j] = getPercentile(PHASES[i], QUANTILES[j]);
+			}
+		}
+		statsFrame = frames;
+	}
+
+	/**
+	 * Añade milisegundos con dos decimales sin crear objetos.
+	 */
+	static void appendMs(StringBuilder builder, float ms) {
+		int hundredths = Math.round(ms*100);
+		builder.append(hundredths/100).append('.');
+		if(hundredths%100 < 10) builder.append('0');
+		builder.append(hundredths%100);
+	}
+
+	/**
+	 * Empieza a escribir una fila por frame en un fichero CSV (milisegundos de cada fase).
+	 */
+	public void startCsv(FileHandle file) {
+		stopCsv();
+		try {
+			csv = new BufferedWriter(file.writer(false, "UTF-8"));
+			csv.write("frame,delta_ms,ticks");
+			for(Phase phase : PHASES) {
+				csv.write("," + phase.name().toLowerCase() + "_ms");
+			}
+			csv.write(",draw_calls,actors_drawn,actors_culled");
+			csv.write('\n');
+			Gdx.app.log(RoundWar.LOG, "Writing frame profile to " + file.path());
+		} catch(IOException e) {
+			failCsv(e);
+		}
+	}
+
+	/**
+	 * Termina de escribir el CSV.
+	 */
+	public void stopCsv() {
+		if(csv == null) return;
+		try {
+			csv.close();
+		} catch(IOException e) {
+			Gdx.app.error(RoundWar.LOG, "Couldn't close frame profile", e);
+		}
+		csv = null;
+	}
+
+	public boolean isWritingCsv() {
+		return csv != null;
+	}
+
+	private void writeRow(float delta, int ticks, int index) {
+		StringBuilder builder = text; // Se reutiliza el del texto: el overlay se rehace en cada draw
+		builder.setLength(0);
+		builder.append(frames).append(',');
+		appendMs(builder, delta*1000);
+		builder.append(',').append(ticks);
+		for(int i = 0; i < PHASES.length; i++) {
+			builder.append(',');
+			appendMs(builder, history[i][index]);
+		}
+		builder.append(',').append(callHistory[index]);
+		builder.append(',').append(drawnHistory[index]).append(',').append(culledHistory[index]);
+		builder.append('\n');
+		if(row.length < builder.length()) row = new char[builder.length()*2];
+		builder.getChars(0, builder.length(), row, 0);
+		try {
+			csv.write(row, 0, builder.length());
+		} catch(IOException e) {
+			failCsv(e);
+		}
+	}
+
+	private void failCsv(IOException e) {
+		Gdx.app.error(RoundWar.LOG, "Frame profile export failed", e);
+		try {
+			if(csv != null) csv.close();
+		} catch(IOException ignored) {
+		}
+		csv = null;
+	}
+
+	/**
+	 * Libera la gráfica y cierra el CSV.
+	 */
+	public void dispose() {
+		stopCsv();
+		if(shapes != null) shapes.dispose();
+		shapes = null;
+	}
+}
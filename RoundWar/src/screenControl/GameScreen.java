@@ -5,22 +5,42 @@
  *******************************************************************************/
 package screenControl;
 
+import java.io.OutputStream;
 import java.util.LinkedList;
 
+import roundwar.GameRandom;
 import roundwar.RoundWar;
 import roundwar.Scene;
 import Attacks.Attack;
+import Attacks.BallAttack;
+import Entities.Enemy;
+import Entities.EnemyFollower;
+import Entities.EnemyTeleporter;
 import Entities.Entity;
+import Entities.EntityAssets;
 import Entities.LivingEntity;
 import Entities.MainCharacter;
+import Events.EventLog;
+import PathFinders.PathFinder;
+import PathFinders.PathScheduler;
+import PathFinders.PathService;
 import PopUps.GamePausePopUp;
 import PopUps.StatChangePopUp;
 import PopUps.WinLosePopUp;
 import ProfileSettings.CharacterProfile;
+import Replays.InputRecorder;
+import Replays.InputReplay;
+import screenControl.FrameProfiler.Phase;
 
+import com.badlogic.gdx.Application.ApplicationType;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input.Keys;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
 
 public class GameScreen extends AbstractScreen {
 	private MainCharacter mainpj;
@@ -29,29 +49,95 @@ public class GameScreen extends AbstractScreen {
 	private WinLosePopUp winLosePopUp;
 	private StatChangePopUp statPopUp;
 	private static Scene scene;
+	private PathScheduler pathScheduler;
 	private float time;
+	/** Pasos de simulación hechos */
+	private int ticks;
+	private final int sceneId;
+	private final CharacterProfile characterProfile;
+	/** Órdenes del jugador para el siguiente paso, y su grabación o repetición */
+	private final PlayerInput input;
+	private InputRecorder recorder;
+	private InputReplay replay;
+	/** Tiempos de cada fase del frame, y si las teclas del overlay y del CSV estaban pulsadas */
+	private final FrameProfiler profiler;
+	/** Datos del modo sin fin, o null si el escenario termina */
+	private EndlessMonitor endless;
+	private boolean overlayKey, csvKey;
+	/** Si la partida ha terminado y si se ha ganado */
+	private boolean finished, won;
+	/** Paso fijo de la simulación y tiempo acumulado aún sin simular */
+	private float tickStep, accumulator;
+	/** Pasos de simulación que se pueden hacer como máximo en un frame */
+	private int maxStepsPerFrame;
+	/** Fracción del siguiente paso ya transcurrida, para interpolar al dibujar */
+	private float alpha;
+	private final Vector3 cameraPrevious, cameraCurrent;
 	private final Vector2 minLimit, maxLimit;
 	private LinkedList<LivingEntity> entities;
+	private SpatialHash spatialHash;
 	public LinkedList<Attack> attacks;
+	/** Área de la cámara (con margen) en el frame que se está dibujando y entidades dentro de ella */
+	private final Rectangle view;
+	private final Array<LivingEntity> inView;
+	/** Frame dibujado, con el que se marcan las entidades a la vista */
+	private int viewFrame;
+	/** Actores dibujados y descartados por estar fuera de la cámara en el frame actual */
+	private int drawnActors, culledActors;
+	private boolean culling = true;
 	
 	public static final float tileSize = 32f;
+	/** Margen alrededor de la cámara dentro del que se siguen dibujando los actores */
+	public static final float CULL_MARGIN = 2*tileSize;
+	public static final int DEFAULT_TICK_RATE = 60;
+	public static final int DEFAULT_MAX_STEPS = 5;
+	public static final String REPLAY_DIR = ".roundWar/replays/";
+	public static final String PROFILE_DIR = ".roundWar/profiles/";
 
     /**
-	 * Constructor con id del escenario.
+	 * Constructor con id del escenario. La semilla de la partida se saca de la hora.
 	 * @param characterProfile
 	 * @param id Id del escenario a crear
 	 */
-    public GameScreen(CharacterProfile characterProfile, int id) {     
+    public GameScreen(CharacterProfile characterProfile, int id) {
+    	this(characterProfile, id, GameRandom.newSeed());
+    }
+    
+    /**
+	 * Constructor con id del escenario y semilla de la partida. Con la misma
+	 * semilla se repiten las mismas oleadas y enemigos.
+	 * @param characterProfile
+	 * @param id Id del escenario a crear
+	 * @param seed Semilla de los números aleatorios
+	 */
+    public GameScreen(CharacterProfile characterProfile, int id, long seed) {     
             super();
             
+            GameRandom.setSeed(seed);
+            Gdx.app.log(RoundWar.LOG, "Match seed: " + seed);
+            this.sceneId = id;
+            this.characterProfile = characterProfile;
+            input = new PlayerInput();
+            profiler = new FrameProfiler();
             time = 0; // Contador de tiempo jugado (en segundos)
+            setTickRate(DEFAULT_TICK_RATE);
+            maxStepsPerFrame = DEFAULT_MAX_STEPS;
+            cameraPrevious = new Vector3();
+            cameraCurrent = new Vector3();
+            view = new Rectangle();
+            inView = new Array<LivingEntity>(false, 64);
             
             // Inicialización del personaje del jugador
+            LivingEntity.resetEntityIds();
+            EventLog.setTick(0);
             this.mainpj = new MainCharacter(characterProfile);
             
             // Inicialización de vectores
             attacks  = new LinkedList<Attack>();
             entities = new LinkedList<LivingEntity>();
+            spatialHash = new SpatialHash(tileSize);
+            pathScheduler = new PathScheduler(2000, 2000); // 2000 nodos o 2 ms por paso (hasta maxStepsPerFrame veces en un frame)
+            PathFinder.setService(PathService.create());
             minLimit = new Vector2(w*0.15f, h*0.85f);
     		maxLimit = new Vector2(w*0.75f - mainpj.getWidth(), h*0.15f + mainpj.getHeight());
     		
@@ -59,21 +145,31 @@ public class GameScreen extends AbstractScreen {
             Attack.setScreen(this);
             Entity.setScreen(this);
             Scene.setScreen(this);
-            GamePausePopUp.setScreen(this);
-            StatChangePopUp.setCharacterProfile(characterProfile);
             
             // Inicialización de Hud y cámaras
             scene = new Scene(id);
-            hud = new Hud(this);
-            statPopUp = new StatChangePopUp(stage.getSpriteBatch());
-            pauseMenu = new GamePausePopUp(stage.getSpriteBatch());
-            winLosePopUp = new WinLosePopUp(stage.getSpriteBatch());
-            
-            batch.setProjectionMatrix(stage.getCamera().combined);
+            if(scene.getEndless() != null) endless = new EndlessMonitor(scene.getEndless().getBudget());
+            if(!RoundWar.headless) { // Sin ventana no hay interfaz
+            	GamePausePopUp.setScreen(this);
+            	StatChangePopUp.setCharacterProfile(characterProfile);
+            	hud = new Hud(this);
+            	statPopUp = new StatChangePopUp(stage.getSpriteBatch());
+            	pauseMenu = new GamePausePopUp(stage.getSpriteBatch());
+            	winLosePopUp = new WinLosePopUp(stage.getSpriteBatch());
+            	batch.setProjectionMatrix(stage.getCamera().combined);
+            }
             
             // Inicialización de entidades   
             entities.add(mainpj);
+            spatialHash.insert(mainpj);
             stage.addActor(mainpj);
+            
+            if(RoundWar.recordReplays && !RoundWar.headless) {
+            	startRecording(Gdx.files.local(REPLAY_DIR + "replay-" + seed + ".rwr").write(false));
+            }
+            if(RoundWar.profileFrames && Gdx.app.getType() == ApplicationType.Desktop) {
+            	startFrameCsv();
+            }
     }
     
     /**
@@ -101,22 +197,43 @@ public class GameScreen extends AbstractScreen {
      * Muestra el mensaje de escenario superado y guarda los datos.
      */
     public void winGame() {
-    	winLosePopUp.show(true);
-    	setPause(true);
-    	mainpj.save();
-    	RoundWar.save();
+    	endGame(true);
     }
     
     /**
      * Muestra el mensaje de derrota y guarda los datos.
      */
     public void loseGame() {
-    	winLosePopUp.show(false);
+    	endGame(false);
+    }
+    
+    /**
+     * Termina la partida. Sin ventana sólo se para el juego, sin mostrar nada ni guardar.
+     */
+    private void endGame(boolean win) {
+    	finished = true;
+    	won = win;
     	setPause(true);
+    	if(RoundWar.headless) return;
+    	winLosePopUp.show(win);
     	mainpj.save();
     	RoundWar.save();
     }
     
+    /**
+     * Devuelve si la partida ha terminado.
+     */
+    public boolean isFinished() {
+    	return finished;
+    }
+    
+    /**
+     * Devuelve si la partida ha terminado ganando.
+     */
+    public boolean isWon() {
+    	return won;
+    }
+    
     
     /**
      * Muestra el pop up de estadísticas de jugador.
@@ -131,6 +248,7 @@ public class GameScreen extends AbstractScreen {
      * Pone el juego en pausa y muestra el menú de pausa.
      */
     public void setGamePause(boolean pause) {
+    	input.pause(pause);
     	setPause(pause);
     	if(pause) pauseMenu.show();
     	else pauseMenu.close();
@@ -142,7 +260,7 @@ public class GameScreen extends AbstractScreen {
     @Override
     public void setPause(boolean pause) {
     	super.setPause(pause);
-    	if(!pause) Gdx.input.setInputProcessor(hud.getStage());
+    	if(!pause && hud != null) Gdx.input.setInputProcessor(hud.getStage());
     }
     
     /**
@@ -157,7 +275,9 @@ public class GameScreen extends AbstractScreen {
      */
     public void addEntity(LivingEntity entity) {
     	entities.add(entity);
+    	spatialHash.insert(entity);
     	stage.addActor(entity);
+    	EventLog.spawn(entity);
     }
     
     /**
@@ -165,29 +285,288 @@ public class GameScreen extends AbstractScreen {
      */
     @Override
     public void render(float delta) {
+    	profiler.beginFrame();
     	if(!pause) gameRender(delta);
-    	else if(pauseMenu.isVisible()) pauseMenu.draw(delta);
-    	else if(winLosePopUp.isVisible()) winLosePopUp.draw(delta);
-    	else if(statPopUp.isVisible()) statPopUp.draw(delta);
+    	else if(!RoundWar.headless) {
+    		profiler.begin(Phase.POPUPS);
+    		if(pauseMenu.isVisible()) pauseMenu.draw(delta);
+    		else if(winLosePopUp.isVisible()) winLosePopUp.draw(delta);
+    		else if(statPopUp.isVisible()) statPopUp.draw(delta);
+    		profiler.end(Phase.POPUPS);
+    		profiler.addRenderCalls(batch.renderCalls);
+    	}
+    	if(!RoundWar.headless) checkProfilerKeys();
+    	profiler.endFrame(delta, ticks);
+    	if(endless != null) endless.update(profiler, getLeftEnemies(), scene.getWaveNumber(), ticks);
     }
     
     /**
-     * Dibuja el juego no pausado.
+     * F3 muestra u oculta el overlay del profiler y F4 empieza o termina el CSV (sólo en escritorio).
+     */
+    private void checkProfilerKeys() {
+    	boolean pressed = Gdx.input.isKeyPressed(Keys.F3);
+    	if(pressed && !overlayKey) profiler.setVisible(!profiler.isVisible());
+    	overlayKey = pressed;
+    	
+    	pressed = Gdx.input.isKeyPressed(Keys.F4);
+    	if(pressed && !csvKey && Gdx.app.getType() == ApplicationType.Desktop) {
+    		if(profiler.isWritingCsv()) profiler.stopCsv();
+    		else startFrameCsv();
+    	}
+    	csvKey = pressed;
+    }
+    
+    /**
+     * Empieza a guardar los tiempos de cada frame en .roundWar/profiles.
+     */
+    private void startFrameCsv() {
+    	profiler.startCsv(Gdx.files.local(PROFILE_DIR + "frames-" + GameRandom.getSeed() + "-" + ticks + ".csv"));
+    }
+    
+    /**
+     * Dibuja el juego no pausado. La simulación avanza en pasos fijos, tantos
+     * como quepan en el tiempo transcurrido (con un máximo por frame), y al
+     * dibujar se interpolan las posiciones entre los dos últimos pasos.
      */
     private void gameRender(float delta) {
+    	Vector3 camera = stage.getCamera().position;
     	if(time == 0) {
-    		stage.getCamera().position.set(mainpj.getCenterX(), mainpj.getCenterY(), 0);
+    		camera.set(mainpj.getCenterX(), mainpj.getCenterY(), 0);
+    		mainpj.savePosition();
+    		cameraPrevious.set(camera);
+    		cameraCurrent.set(camera);
+    	}
+    	
+    	accumulator += delta;
+    	int steps = 0;
+    	while(accumulator >= tickStep && steps < maxStepsPerFrame && !pause) {
+    		cameraPrevious.set(camera);
+    		tick(tickStep);
+    		accumulator -= tickStep;
+    		steps++;
     	}
-    	time += delta;
-    	super.render(delta);
-    	scene.update(delta);
-    	hud.drawStage(delta);
-    	stage.getSpriteBatch().begin();
-    	getFont().draw(batch, "FPS:   " + Gdx.graphics.getFramesPerSecond(), 20, 30);
+    	if(accumulator >= tickStep) { // No se ha podido alcanzar, se descarta el retraso
+    		accumulator %= tickStep;
+    	}
+    	cameraCurrent.set(camera);
+    	alpha = accumulator/tickStep;
+    	if(RoundWar.headless) return;
+    	
+    	// Dibuja con la cámara interpolada y la deja donde está en la simulación
+    	camera.set(cameraPrevious).lerp(cameraCurrent, alpha);
+    	clear();
+    	profiler.begin(Phase.DRAW);
+    	updateView();
+    	stage.draw();
+    	profiler.end(Phase.DRAW);
+    	profiler.addRenderCalls(batch.renderCalls);
+    	profiler.setActors(drawnActors, culledActors);
+    	camera.set(cameraCurrent);
+    	profiler.begin(Phase.HUD);
+    	hud.draw();
+    	profiler.end(Phase.HUD);
+    	profiler.addRenderCalls(batch.renderCalls);
+    	profiler.draw(batch, getFont());
+    	if(endless != null) endless.draw(batch, getFont(), attacks.size());
     	//getFont().draw(batch, String.format("Max:   %.1f", (float)(Runtime.getRuntime().maxMemory()   / 1048576f)), 20, 70);
     	//getFont().draw(batch, String.format("Free:  %.1f", (float)(Runtime.getRuntime().freeMemory()  / 1048576f)), 20, 50);
     	//getFont().draw(batch, String.format("Total: %.1f", (float)(Runtime.getRuntime().totalMemory() / 1048576f)), 20, 30);
-    	stage.getSpriteBatch().end();
+    }
+    
+    /**
+     * Calcula el área que ve la cámara, ampliada con CULL_MARGIN, y marca las
+     * entidades que hay dentro con una consulta a la rejilla, para que las
+     * demás no se dibujen. Las posiciones que se dibujan están interpoladas
+     * y pueden quedar algo detrás de la rejilla: el margen lo cubre.
+     */
+    private void updateView() {
+    	Camera camera = stage.getCamera();
+    	float zoom = camera instanceof OrthographicCamera ? ((OrthographicCamera) camera).zoom : 1;
+    	float width = camera.viewportWidth*zoom + 2*CULL_MARGIN;
+    	float height = camera.viewportHeight*zoom + 2*CULL_MARGIN;
+    	view.set(camera.position.x - width/2, camera.position.y - height/2, width, height);
+    	
+    	viewFrame++;
+    	inView.clear();
+    	spatialHash.query(view.x, view.y, view.width, view.height, inView);
+    	for(int i = 0; i < inView.size; i++) {
+    		inView.get(i).setViewFrame(viewFrame);
+    	}
+    	drawnActors = inView.size;
+    	culledActors = spatialHash.size() - inView.size;
+    	inView.clear();
+    }
+    
+    /**
+     * Indica si una entidad está a la vista de la cámara en el frame que se está dibujando.
+     */
+    public boolean isInView(LivingEntity entity) {
+    	return !culling || entity.getViewFrame() == viewFrame;
+    }
+    
+    /**
+     * Indica si un área está a la vista de la cámara en el frame que se está
+     * dibujando. Lo usan los ataques, que no están en la rejilla porque se
+     * mueven cada paso y duran poco, y cuenta el resultado como actor dibujado
+     * o descartado.
+     */
+    public boolean isInView(float x, float y, float width, float height) {
+    	boolean visible = !culling || (x < view.x + view.width && x + width > view.x
+    			&& y < view.y + view.height && y + height > view.y);
+    	if(visible) drawnActors++;
+    	else culledActors++;
+    	return visible;
+    }
+    
+    /**
+     * Activa o desactiva el descarte de los actores fuera de la cámara (activado por defecto).
+     */
+    public void setCulling(boolean culling) {
+    	this.culling = culling;
+    }
+    
+    public boolean isCulling() {
+    	return culling;
+    }
+    
+    /**
+     * Avanza la simulación un paso.
+     */
+    private void tick(float step) {
+    	ticks++;
+    	time += step;
+    	EventLog.setTick(ticks);
+    	profiler.begin(Phase.ACT);
+    	stage.act(step);
+    	profiler.end(Phase.ACT);
+    	profiler.begin(Phase.SCENE);
+    	scene.update(step);
+    	profiler.end(Phase.SCENE);
+    	profiler.begin(Phase.PATHS);
+    	pathScheduler.update();
+    	profiler.end(Phase.PATHS);
+    	profiler.begin(Phase.HUD_ACT);
+    	if(hud != null) hud.act(step);
+    	
+    	// Órdenes del jugador: del controlador y el hud, o de la repetición
+    	if(replay != null) replay.read(ticks, input);
+    	if(recorder != null) recorder.record(ticks, input);
+    	input.apply(mainpj);
+    	profiler.end(Phase.HUD_ACT);
+    	if(finished) stopRecording();
+    }
+    
+    /**
+     * Empieza a grabar las órdenes del jugador. Debe llamarse antes del primer
+     * paso. Mientras se graba, las búsquedas de camino sólo se limitan por nodos
+     * expandidos y los hilos de búsqueda entregan en un paso fijo, para que no
+     * dependan de lo rápido que sea el dispositivo.
+     * @param stream Donde se graba. Se cierra al terminar.
+     */
+    public void startRecording(OutputStream stream) {
+    	stopRecording();
+    	recorder = new InputRecorder(stream, sceneId, GameRandom.getSeed(), getTickRate(), characterProfile,
+    			Enemy.isDetailLevels(), mainpj.isInvulnerable());
+    	setDeterministicPaths();
+    }
+    
+    /**
+     * Termina la grabación, guardando el estado final de la partida.
+     */
+    public void stopRecording() {
+    	if(recorder == null) return;
+    	recorder.close(ticks, mainpj.getX(), mainpj.getY(), mainpj.getHealth(), getLeftEnemies());
+    	recorder = null;
+    }
+    
+    /**
+     * Usa las órdenes de una repetición en lugar de las del jugador. La partida
+     * debe haberse creado con el escenario, la semilla y el perfil de la
+     * repetición. Como al grabar, las búsquedas de camino sólo se limitan por
+     * nodos expandidos y los hilos de búsqueda entregan en un paso fijo.
+     */
+    public void startReplay(InputReplay replay) {
+    	this.replay = replay;
+    	input.clear();
+    	setTickRate(replay.getTickRate());
+    	setDeterministicPaths();
+    }
+    
+    /**
+     * Hace que las búsquedas de camino den lo mismo en cualquier dispositivo.
+     */
+    private void setDeterministicPaths() {
+    	pathScheduler.setTimeBudget(Long.MAX_VALUE);
+    	if(PathFinder.getService() != null) PathFinder.getService().setDeterministic(true);
+    }
+    
+    /**
+     * Aplica y graba ya las órdenes pendientes, sin mover al personaje. Es para
+     * las que se dan con el juego en pausa (el reparto de puntos de estadística):
+     * quedan grabadas con el último paso hecho y la repetición las aplica al
+     * terminar ese paso, igual que aquí.
+     */
+    public void applyCommands() {
+    	if(recorder != null) recorder.recordCommands(ticks, input);
+    	input.applyCommands(mainpj);
+    }
+    
+    /**
+     * Devuelve las órdenes del jugador para el siguiente paso.
+     */
+    public PlayerInput getInput() {
+    	return input;
+    }
+    
+    /**
+     * Devuelve el profiler con los tiempos de cada fase de los frames.
+     */
+    public FrameProfiler getProfiler() {
+    	return profiler;
+    }
+    
+    /**
+     * Devuelve los datos del modo sin fin, o null si el escenario no lo tiene.
+     */
+    public EndlessMonitor getEndlessMonitor() {
+    	return endless;
+    }
+    
+    /**
+     * Devuelve los pasos de simulación hechos.
+     */
+    public int getTicks() {
+    	return ticks;
+    }
+    
+    /**
+     * Cambia el número de pasos de simulación por segundo.
+     */
+    public void setTickRate(int ticksPerSecond) {
+    	tickStep = 1f/ticksPerSecond;
+    }
+    
+    public int getTickRate() {
+    	return Math.round(1f/tickStep);
+    }
+    
+    /**
+     * Cambia el número máximo de pasos de simulación que se hacen en un frame para alcanzar el tiempo real.
+     */
+    public void setMaxStepsPerFrame(int maxSteps) {
+    	this.maxStepsPerFrame = maxSteps;
+    }
+    
+    public int getMaxStepsPerFrame() {
+    	return maxStepsPerFrame;
+    }
+    
+    /**
+     * Devuelve la fracción del siguiente paso de simulación ya transcurrida (entre 0 y 1),
+     * con la que se interpolan las posiciones al dibujar.
+     */
+    public float getAlpha() {
+    	return alpha;
     }
     
     /**
@@ -211,6 +590,13 @@ public class GameScreen extends AbstractScreen {
     	return mainpj;
     }
     
+    /**
+     * Devuelve el planificador que reparte entre frames las búsquedas de camino.
+     */
+    public PathScheduler getPathScheduler() {
+    	return pathScheduler;
+    }
+    
     /**
      * Calcula la celda adyacente a una posición dada en la dirección que se indique.
      */
@@ -218,6 +604,29 @@ public class GameScreen extends AbstractScreen {
     	return scene.getBackground().calculeAdyacentCellCenter(posX, posY, direction);
     }
     
+    /**
+     * Actualiza la posición de una entidad en la rejilla de colisiones. Se llama cada vez que se mueve.
+     */
+    public void updateEntity(LivingEntity entity) {
+    	spatialHash.update(entity);
+    }
+    
+    /**
+     * Añade a result las entidades que se solapan con el área dada.
+     * @return Número de entidades añadidas.
+     */
+    public int queryArea(float x, float y, float width, float height, Array<LivingEntity> result) {
+    	return spatialHash.query(x, y, width, height, result);
+    }
+    
+    /**
+     * Añade a result las entidades que contienen el punto dado.
+     * @return Número de entidades añadidas.
+     */
+    public int queryPoint(float x, float y, Array<LivingEntity> result) {
+    	return spatialHash.query(x, y, result);
+    }
+    
     /**
      * Devuelve la entidad, en caso de haberla, con la que colisiona una entidad avanzando deltaX y deltaY.
      * @param entity Entidad con la que se quiere comprobar si hay alguna colisión.
@@ -225,15 +634,15 @@ public class GameScreen extends AbstractScreen {
      * @param deltaY Valor en el eje y hacia donde se moverá la entidad.
      */
     public LivingEntity collides(LivingEntity entity, float deltaX, float deltaY) {
-    	Rectangle bounds = new Rectangle(entity.getBounds());
-    	bounds.x += deltaX;
-    	bounds.y += deltaY;
-    	for (LivingEntity ent : entities) {
-    		if(!entity.equals(ent) && bounds.overlaps(ent.getBounds())) {
-    			return ent;
-    		}
-    	}
-    	return null;
+    	Rectangle bounds = entity.getBounds();
+    	return spatialHash.findOverlap(bounds.x + deltaX, bounds.y + deltaY, bounds.width, bounds.height, entity);
+    }
+    
+    /**
+     * Si alguna entidad se solapa con el área dada.
+     */
+    public boolean isOccupied(float x, float y, float width, float height) {
+    	return spatialHash.findOverlap(x, y, width, height, null) != null;
     }
     
     /**
@@ -243,12 +652,8 @@ public class GameScreen extends AbstractScreen {
      * @param deltaY Valor en el eje y donde está la entidad.
      */
     public LivingEntity collidesWithEntity (LivingEntity entity, float posX, float posY) {
-    	Rectangle bounds = new Rectangle(posX-entity.getWidth()/2, posY-entity.getHeight()/2, entity.getWidth(), entity.getHeight());
-    	for (LivingEntity ent : entities) {
-    		if(!entity.equals(ent) && ent.getBounds().overlaps(bounds))
-    			return ent;
-    	}
-    	return null;
+    	return spatialHash.findOverlap(posX-entity.getWidth()/2, posY-entity.getHeight()/2,
+    			entity.getWidth(), entity.getHeight(), entity);
     }
     
     /**
@@ -258,22 +663,14 @@ public class GameScreen extends AbstractScreen {
      * @param deltaY Valor en el eje y donde está el ataque.
      */
     public LivingEntity attackCollides (LivingEntity entity, float posX, float posY) {
-    	for (LivingEntity ent : entities) {
-    		if(!entity.equals(ent) && ent.getBounds().contains(posX, posY))
-    			return ent;
-    	}
-    	return null;
+    	return spatialHash.findAt(posX, posY, entity);
     }
     
     /**
      * Devuelve al jugador principal en caso de que un enemigo choque contra él.
      */
     public LivingEntity enemyAttackCollides (LivingEntity entity, float posX, float posY) {
-    	for (LivingEntity ent : entities) {
-    		if(ent instanceof MainCharacter && ent.getBounds().contains(posX, posY))
-    			return ent;
-    	}
-    	return null;
+    	return mainpj.getBounds().contains(posX, posY) ? mainpj : null;
     }
     
     /**
@@ -282,6 +679,8 @@ public class GameScreen extends AbstractScreen {
     public void removeEntity(LivingEntity entity) {
     	getStage().getRoot().removeActor(entity);
     	entities.remove(entity);
+    	spatialHash.remove(entity);
+    	pathScheduler.cancel(entity);
     	scene.removeEnemy(1);
     }
     
@@ -305,7 +704,7 @@ public class GameScreen extends AbstractScreen {
      */
     public void removeAttack(Attack attack) {
     	getStage().getRoot().removeActor(attack);
-    	attacks.remove(attack);
+    	if(attacks.remove(attack)) attack.free();
     }
     
     /**
@@ -314,6 +713,7 @@ public class GameScreen extends AbstractScreen {
     @Override
 	public void resize(int width, int height) {
     	super.resize(width, height);
+    	if(hud == null) return;
     	hud.resize(width, height);
     	pauseMenu.resize(width, height);
 	}
@@ -323,15 +723,28 @@ public class GameScreen extends AbstractScreen {
      */
     @Override
 	public void dispose() {
-        hud.dispose();
+        stopRecording();
+        profiler.dispose();
+        if(hud != null) hud.dispose();
+        pathScheduler.clear();
+        if(PathFinder.getService() != null) {
+        	PathFinder.getService().dispose();
+        	PathFinder.setService(null);
+        }
         scene.dispose();
         for (LivingEntity entity : entities) {
         	entity.dispose();
         }
+        spatialHash.clear();
+        EntityAssets.disposeAll();
+        EnemyFollower.getPool().clear();
+        EnemyTeleporter.getPool().clear();
+        BallAttack.getPool().clear();
         Attack.dispose();
 //        for(Attack attack : attacks) {
 //    		attack.dispose();
 //    	}
+        if(hud == null) return;
         winLosePopUp.dispose();
         statPopUp.dispose();
         pauseMenu.dispose();
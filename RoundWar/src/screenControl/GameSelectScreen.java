@@ -7,13 +7,12 @@ package screenControl;
 
 import java.util.ArrayList;
 
+import roundwar.GameAtlas;
 import Buttons.NewCharacterButton;
 import PopUps.CharacterInfoPopUp;
 import ProfileSettings.CharacterProfile;
 import ProfileSettings.Profile;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.InputListener;
@@ -21,7 +20,6 @@ import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 
 public class GameSelectScreen  extends AbstractScreen {
 	private ArrayList<NewCharacterButton> buttons;
-	private Texture texture;
 	private int i, COLS, ROWS;
 	CharacterProfile charprofile;
 	TextureRegion character;
@@ -58,8 +56,8 @@ public class GameSelectScreen  extends AbstractScreen {
 				
 		// Botones de selección de partida
 		NewCharacterButton.setFont(getFont());
-		texture = new Texture(Gdx.files.internal("images/front.png"));
-		TextureRegion[][] tmp = TextureRegion.split(texture, texture.getWidth() / COLS, texture.getHeight() / ROWS);
+		TextureRegion front = GameAtlas.findRegion("images/front");
+		TextureRegion[][] tmp = front.split(front.getRegionWidth() / COLS, front.getRegionHeight() / ROWS);
 		buttons = new ArrayList<NewCharacterButton>();
 		for(i = 0; i < 12; i++) {
 			// Si el botón es una partida ya creada
@@ -122,7 +120,6 @@ public class GameSelectScreen  extends AbstractScreen {
 	 */
 	@Override
 	public void dispose() {
-		texture.dispose();
 		super.dispose();
 	}
 }
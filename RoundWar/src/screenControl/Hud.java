@@ -33,12 +33,14 @@ public class Hud {
 	private TextButton runAttackButton;
 	private TextButton farAttackButton;
 	private TextButton inAreaAttackButton;
-	private static TextButton menuButton;
+	private TextButton menuButton;
 	private Controller control;
 	
 	private MainCharacter mainpj;
-	private static HealthBar healthBar;
-	private static ManaBar manaBar;
+	/** Valores del personaje que se leen una vez por frame dibujado */
+	private final HudModel model;
+	private HealthBar healthBar;
+	private ManaBar manaBar;
 
 	/**
 	 * Contructor.
@@ -51,10 +53,12 @@ public class Hud {
     	this.game = game;
     	this.stage = this.game.getStage();
     	this.mainpj = this.game.getCharacter();
+    	this.model = mainpj.getHudModel();
     	this.skin = AbstractScreen.getSkin();
     	
     	initializeStage(game.getStage().getSpriteBatch());
     	initializeTable();
+    	model.markAllDirty();
     }
     
     /**
@@ -70,7 +74,7 @@ public class Hud {
     	
     	// Inicialize actors
     	table = game.getTable();
-    	control = new Controller(mainpj);
+    	control = new Controller(game.getInput());
     	healthBar = new HealthBar(mainpj);
     	manaBar = new ManaBar(mainpj);
     	
@@ -111,7 +115,7 @@ public class Hud {
 		    	Gdx.app.log( RoundWar.LOG, "Pulsado botón near Attack" );
 		    	
 		    	if(!nearAttackButton.isChecked()) // Está disponible el ataque
-		    		mainpj.doAttack1();
+		    		game.getInput().attack(1);
 		    	
 		    	nearAttackButton.setChecked(!nearAttackButton.isChecked());
 		        return false;
@@ -123,7 +127,7 @@ public class Hud {
 		    	Gdx.app.log( RoundWar.LOG, "Pulsado botón run Attack" ); 
 		    	
 		    	if(!runAttackButton.isChecked()) // Está disponible el ataque
-		    		mainpj.doAttack2();
+		    		game.getInput().attack(2);
 		    	
 		    	runAttackButton.setChecked(!runAttackButton.isChecked());
 		    	
@@ -136,7 +140,7 @@ public class Hud {
 		    	Gdx.app.log( RoundWar.LOG, "Pulsado botón far Attack" );
 		    	
 		    	if(!farAttackButton.isChecked()) // Está disponible el ataque
-		    		mainpj.doAttack3();
+		    		game.getInput().attack(3);
 		    		
 		    	farAttackButton.setChecked(!farAttackButton.isChecked());
 
@@ -150,7 +154,7 @@ public class Hud {
 		    	Gdx.app.log( RoundWar.LOG, "Pulsado botón in area Attack" );
 		    	
 		    	if(!inAreaAttackButton.isChecked()) // Está disponible el ataque
-		    		mainpj.doAttack4();
+		    		game.getInput().attack(4);
 		    	
 		    	inAreaAttackButton.setChecked(!inAreaAttackButton.isChecked());
 
@@ -188,7 +192,7 @@ public class Hud {
 			public boolean touchDown (InputEvent  event, float x, float y, int pointer, int button) {                   
 		    	if(hudStage.hit(x, y, true) == null) { // Si no pulso algún actor del hud
 		    		Vector2 aux = stage.screenToStageCoordinates(new Vector2(x,h-y));
-		    		mainpj.doBasicAttack(aux);
+		    		game.getInput().basicAttack(aux.x, aux.y);
 		    	}
 		        return true;
 		    } } );
@@ -243,51 +247,39 @@ public class Hud {
     }
     
     /**
-     * Actualiza la barra de vida añadiendole la cantidad indicada.
-     * @param health
+     * Lleva al hud lo que haya cambiado en el modelo desde el último frame. Las
+     * barras sólo cambian si su ancho cambia en algún píxel, y el texto del
+     * nivel (y con él su distribución de glifos) sólo si sube de nivel.
      */
-    public static void updateHealthBar(float health){
-    	healthBar.updateValue(health);
-    }
-    
-    /**
-     * Pone el valor máximo de la barra de vida.
-     * @param value
-     */
-    public static void setMaxValueHp(float value) {
-    	healthBar.setMaxValue(value);
-    }
-    
-    /**
-     * Actualiza la barra de maná añadiendole la cantidad indicada.
-     * @param mana
-     */
-    public static void updateManaBar(float mana){
-    	manaBar.updateValue(mana);
-    }
-    
-    /**
-     * Pone el valor máximo de la barra de maná.
-     * @param value
-     */
-    public static void setMaxValueMp(float value) {
-    	manaBar.setMaxValue(value);
+    private void update() {
+    	int dirty = model.takeDirty();
+    	if(dirty == 0) return;
+    	if((dirty & HudModel.HEALTH) != 0) {
+    		healthBar.setMaxValue(model.getMaxHealth());
+    		healthBar.updateValue(model.getHealth());
+    	}
+    	if((dirty & HudModel.MANA) != 0) {
+    		manaBar.setMaxValue(model.getMaxMana());
+    		manaBar.updateValue(model.getMana());
+    	}
+    	if((dirty & HudModel.LEVEL) != 0) {
+    		menuButton.setText(String.valueOf(model.getLevel()));
+    	}
     }
     
     /**
-     * Actualiza el nivel del jugador añadiendole la cantidad indicada.
-     * @param lvl
+     * Actualiza el stage del hud (y con él el controlador y el personaje principal).
+     * @param delta
      */
-    public static void updateLevel(int lvl) {
-    	menuButton.setText(String.valueOf(lvl));
+    public void act(float delta) {
+    	if(!game.isPaused()) hudStage.act(delta);
     }
     
     /**
      * Dibuja el stage del hud.
-     * @param delta
      */
-    public void drawStage(float delta) {
-    	if(!game.isPaused()) hudStage.act(delta);
+    public void draw() {
+    	update();
     	hudStage.draw();
     }
     
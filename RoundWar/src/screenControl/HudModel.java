@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package screenControl;
+
+/**
+ * Valores del personaje que muestra el hud. El personaje los escribe cada vez
+ * que cambian, sin tocar el hud, y el hud los lee una vez por frame dibujado
+ * sólo si ha cambiado algo (ver takeDirty).
+ */
+public class HudModel {
+	/** Marcas de lo que ha cambiado desde la última lectura */
+	public static final int HEALTH = 1, MANA = 2, LEVEL = 4;
+
+	private float health, maxHealth, mana, maxMana;
+	private int level;
+	private int dirty;
+
+	public void setHealth(float health) {
+		if(this.health == health) return;
+		this.health = health;
+		dirty |= HEALTH;
+	}
+
+	public void setMaxHealth(float maxHealth) {
+		if(this.maxHealth == maxHealth) return;
+		this.maxHealth = maxHealth;
+		dirty |= HEALTH;
+	}
+
+	public void setMana(float mana) {
+		if(this.mana == mana) return;
+		this.mana = mana;
+		dirty |= MANA;
+	}
+
+	public void setMaxMana(float maxMana) {
+		if(this.maxMana == maxMana) return;
+		this.maxMana = maxMana;
+		dirty |= MANA;
+	}
+
+	public void setLevel(int level) {
+		if(this.level == level) return;
+		this.level = level;
+		dirty |= LEVEL;
+	}
+
+	public float getHealth() {
+		return health;
+	}
+
+	public float getMaxHealth() {
+		return maxHealth;
+	}
+
+	public float getMana() {
+		return mana;
+	}
+
+	public float getMaxMana() {
+		return maxMana;
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Devuelve las marcas de lo que ha cambiado desde la última llamada (0 si nada) y las borra.
+	 */
+	public int takeDirty() {
+		int changed = dirty;
+		dirty = 0;
+		return changed;
+	}
+
+	/**
+	 * Marca todo como cambiado, para que el hud lo vuelva a leer entero.
+	 */
+	public void markAllDirty() {
+		dirty = HEALTH | MANA | LEVEL;
+	}
+}
@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package screenControl;
+
+import Entities.LivingEntity.Status;
+import Entities.MainCharacter;
+import ProfileSettings.CharacterProfile;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Órdenes del jugador para el siguiente paso de la simulación. El controlador
+ * y el hud las apuntan aquí en lugar de mover o atacar directamente, y la
+ * pantalla de juego las aplica al personaje en cada paso, así se pueden grabar
+ * y reproducir igual. Los valores se redondean al apuntarlos (el controlador a
+ * 1/127 y las posiciones a píxeles enteros) para que una repetición dé
+ * exactamente el mismo resultado que la partida grabada. El reparto de puntos
+ * de estadística también son órdenes, aunque se dan con el juego en pausa.
+ */
+public class PlayerInput {
+	/** Tipos de orden */
+	public static final int BASIC_ATTACK = 1, ATTACK_1 = 2, ATTACK_2 = 3, ATTACK_3 = 4, ATTACK_4 = 5,
+			PAUSE = 6, RESUME = 7, STAT_ATQ = 9, STAT_DEF = 10, STAT_VEL = 11, STAT_HP = 12, STAT_MP = 13,
+			RESET_STATS = 14;
+	/** Valor máximo del controlador redondeado */
+	public static final int KNOB_SCALE = 127;
+
+	private boolean touched;
+	private int knobX, knobY;
+	/** Órdenes pendientes: tipo, x e y de cada una */
+	private final IntArray commands;
+	private final Vector2 target;
+
+	public PlayerInput() {
+		commands = new IntArray(12);
+		target = new Vector2();
+	}
+
+	/**
+	 * Se está usando el controlador.
+	 * @param percentX Posición del controlador en el eje x (entre -1 y 1).
+	 * @param percentY Posición del controlador en el eje y (entre -1 y 1).
+	 */
+	public void setKnob(float percentX, float percentY) {
+		setKnobScaled(Math.round(percentX*KNOB_SCALE), Math.round(percentY*KNOB_SCALE));
+	}
+
+	/**
+	 * Se está usando el controlador, con la posición ya redondeada.
+	 */
+	public void setKnobScaled(int knobX, int knobY) {
+		touched = true;
+		this.knobX = Math.max(-KNOB_SCALE, Math.min(KNOB_SCALE, knobX));
+		this.knobY = Math.max(-KNOB_SCALE, Math.min(KNOB_SCALE, knobY));
+	}
+
+	/**
+	 * Se ha soltado el controlador.
+	 */
+	public void releaseKnob() {
+		touched = false;
+		knobX = knobY = 0;
+	}
+
+	/**
+	 * Ataque básico hacia una posición del escenario.
+	 */
+	public void basicAttack(float x, float y) {
+		add(BASIC_ATTACK, Math.round(x), Math.round(y));
+	}
+
+	/**
+	 * Ataque especial (de 1 a 4).
+	 */
+	public void attack(int number) {
+		add(ATTACK_1 + number - 1, 0, 0);
+	}
+
+	/**
+	 * Se ha pausado o reanudado el juego. No cambia la simulación, sólo queda grabado.
+	 */
+	public void pause(boolean pause) {
+		add(pause ? PAUSE : RESUME, 0, 0);
+	}
+
+	/**
+	 * Gasta un punto en subir una estadística (de STAT_ATQ a STAT_MP).
+	 */
+	public void spendPoint(int stat) {
+		add(stat, 0, 0);
+	}
+
+	/**
+	 * Vuelve a las estadísticas por defecto, recuperando los puntos gastados.
+	 */
+	public void resetStats() {
+		add(RESET_STATS, 0, 0);
+	}
+
+	/**
+	 * Añade una orden pendiente.
+	 */
+	public void add(int type, int x, int y) {
+		commands.add(type);
+		commands.add(x);
+		commands.add(y);
+	}
+
+	/**
+	 * Mueve al personaje según el controlador y le aplica las órdenes pendientes.
+	 */
+	public void apply(MainCharacter mainpj) {
+		if(touched) { // Si se está usando, mover al personaje principal.
+			mainpj.moveEntity((float) knobX/KNOB_SCALE, (float) knobY/KNOB_SCALE, true);
+		} else { // Poner el personaje en estado de espera.
+			mainpj.setStatus(Status.ILDE);
+		}
+		applyCommands(mainpj);
+	}
+
+	/**
+	 * Aplica al personaje las órdenes pendientes, sin moverlo, y las borra.
+	 */
+	public void applyCommands(MainCharacter mainpj) {
+		for(int i = 0; i < commands.size; i += 3) {
+			switch(commands.get(i)) {
+				case BASIC_ATTACK:
+					mainpj.doBasicAttack(target.set(commands.get(i + 1), commands.get(i + 2)));
+					break;
+				case ATTACK_1:
+					mainpj.doAttack1();
+					break;
+				case ATTACK_2:
+					mainpj.doAttack2();
+					break;
+				case ATTACK_3:
+					mainpj.doAttack3();
+					break;
+				case ATTACK_4:
+					mainpj.doAttack4();
+					break;
+				case STAT_ATQ:
+				case STAT_DEF:
+				case STAT_VEL:
+				case STAT_HP:
+				case STAT_MP:
+					upStat(mainpj, commands.get(i));
+					break;
+				case RESET_STATS:
+					CharacterProfile profile = mainpj.getProfile();
+					profile.setDefaultStats();
+					mainpj.getHudModel().setMaxHealth(profile.getStatHp());
+					mainpj.getHudModel().setMaxMana(profile.getMaxMp());
+					break;
+			}
+		}
+		commands.clear();
+	}
+
+	/**
+	 * Gasta un punto del perfil del personaje en una estadística, si le queda alguno.
+	 */
+	private void upStat(MainCharacter mainpj, int stat) {
+		CharacterProfile profile = mainpj.getProfile();
+		if(profile.getLeftPoints() <= 0) return;
+		profile.updateLeftPoints(-1);
+		switch(stat) {
+			case STAT_ATQ:
+				profile.updateStatAtq();
+				break;
+			case STAT_DEF:
+				profile.updateStatDef();
+				break;
+			case STAT_VEL:
+				profile.updateStatVel();
+				break;
+			case STAT_HP:
+				profile.updateStatHp();
+				mainpj.getHudModel().setMaxHealth(profile.getStatHp());
+				break;
+			case STAT_MP:
+				profile.updateMaxMp();
+				mainpj.getHudModel().setMaxMana(profile.getMaxMp());
+				break;
+		}
+	}
+
+	/**
+	 * Borra las órdenes pendientes y suelta el controlador.
+	 */
+	public void clear() {
+		releaseKnob();
+		commands.clear();
+	}
+
+	public boolean isTouched() {
+		return touched;
+	}
+
+	public int getKnobX() {
+		return knobX;
+	}
+
+	public int getKnobY() {
+		return knobY;
+	}
+
+	/**
+	 * Devuelve el número de órdenes pendientes.
+	 */
+	public int getCommandCount() {
+		return commands.size/3;
+	}
+
+	public int getCommandType(int index) {
+		return commands.get(index*3);
+	}
+
+	public int getCommandX(int index) {
+		return commands.get(index*3 + 1);
+	}
+
+	public int getCommandY(int index) {
+		return commands.get(index*3 + 2);
+	}
+}
@@ -7,6 +7,7 @@ package screenControl;
 
 import java.util.ArrayList;
 
+import roundwar.SceneCatalog;
 import ProfileSettings.CharacterProfile;
 
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
@@ -15,7 +16,7 @@ import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 
 public class SceneSelectScreen extends AbstractScreen {
 	private ArrayList<TextButton> lvl;
-	private int numLevels = 4;
+	private int numLevels = SceneCatalog.size();
 //	private int size = (int) ( (w*0.85f - (numLevels/2)*0.1f*w) / Math.round(numLevels/2f) );
 	private int size;
 	private TextButton backButton;
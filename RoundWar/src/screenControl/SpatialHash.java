@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * Copyright (c) 2014
+ *
+ * @author Elisabet Romero Vaquero
+ *******************************************************************************/
+package screenControl;
+
+import Entities.LivingEntity;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Rejilla uniforme que reparte las entidades según las celdas que ocupa su
+ * rectángulo de colisión, para que las consultas de colisión sólo miren las
+ * entidades cercanas en lugar de todas. Las entidades deben avisar con update
+ * cada vez que se mueven. Las consultas no crean objetos.
+ */
+public class SpatialHash {
+	private final float cellSize;
+	/** Entidades de cada celda ocupada */
+	private final IntMap<Array<Entry>> buckets;
+	private final ObjectMap<LivingEntity, Entry> entries;
+	private final Pool<Entry> entryPool;
+	private final Pool<Array<Entry>> bucketPool;
+	/** Número de consulta, para no devolver dos veces una entidad que ocupa varias celdas */
+	private int query;
+
+	/**
+	 * Constructor.
+	 * @param cellSize Tamaño de las celdas.
+	 */
+	public SpatialHash(float cellSize) {
+		this.cellSize = cellSize;
+		buckets = new IntMap<Array<Entry>>();
+		entries = new ObjectMap<LivingEntity, Entry>();
+		entryPool = new Pool<Entry>() {
+			@Override
+			protected Entry newObject() {
+				return new Entry();
+			}
+		};
+		bucketPool = new Pool<Array<Entry>>() {
+			@Override
+			protected Array<Entry> newObject() {
+				return new Array<Entry>(false, 4);
+			}
+		};
+	}
+
+	/**
+	 * Añade una entidad en la posición que tenga.
+	 */
+	public void insert(LivingEntity entity) {
+		if(entries.containsKey(entity)) {
+			update(entity);
+			return;
+		}
+		Entry entry = entryPool.obtain();
+		entry.entity = entity;
+		entries.put(entity, entry);
+		Rectangle bounds = entity.getBounds();
+		entry.minX = cell(bounds.x);
+		entry.minY = cell(bounds.y);
+		entry.maxX = cell(bounds.x + bounds.width);
+		entry.maxY = cell(bounds.y + bounds.height);
+		add(entry);
+	}
+
+	/**
+	 * Actualiza las celdas de una entidad tras moverse. No hace nada si no está añadida.
+	 */
+	public void update(LivingEntity entity) {
+		Entry entry = entries.get(entity);
+		if(entry == null) return;
+		Rectangle bounds = entity.getBounds();
+		int minX = cell(bounds.x);
+		int minY = cell(bounds.y);
+		int maxX = cell(bounds.x + bounds.width);
+		int maxY = cell(bounds.y + bounds.height);
+		if(minX == entry.minX && minY == entry.minY && maxX == entry.maxX && maxY == entry.maxY) {
+			return; // Sigue en las mismas celdas
+		}
+		remove(entry);
+		entry.minX = minX;
+		entry.minY = minY;
+		entry.maxX = maxX;
+		entry.maxY = maxY;
+		add(entry);
+	}
+
+	/**
+	 * Quita una entidad.
+	 */
+	public void remove(LivingEntity entity) {
+		Entry entry = entries.remove(entity);
+		if(entry != null) {
+			remove(entry);
+			entry.entity = null;
+			entryPool.free(entry);
+		}
+	}
+
+	/**
+	 * Devuelve la primera entidad, distinta de la excluida, cuyo rectángulo se
+	 * solapa con el área dada, o null si no hay ninguna.
+	 */
+	public LivingEntity findOverlap(float x, float y, float width, float height, LivingEntity exclude) {
+		int stamp = nextQuery();
+		for(int cx = cell(x), maxX = cell(x + width); cx <= maxX; cx++) {
+			for(int cy = cell(y), maxY = cell(y + height); cy <= maxY; cy++) {
+				Array<Entry> bucket = buckets.get(key(cx, cy));
+				if(bucket == null) continue;
+				for(int i = 0; i < bucket.size; i++) {
+					Entry entry = bucket.get(i);
+					if(entry.stamp == stamp || entry.entity == exclude) continue;
+					entry.stamp = stamp;
+					if(overlaps(entry.entity.getBounds(), x, y, width, height)) {
+						return entry.entity;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Devuelve la primera entidad, distinta de la excluida, que contiene el
+	 * punto dado, o null si no hay ninguna.
+	 */
+	public LivingEntity findAt(float x, float y, LivingEntity exclude) {
+		Array<Entry> bucket = buckets.get(key(cell(x), cell(y)));
+		if(bucket == null) return null;
+		for(int i = 0; i < bucket.size; i++) {
+			Entry entry = bucket.get(i);
+			if(entry.entity != exclude && entry.entity.getBounds().contains(x, y)) {
+				return entry.entity;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Añade a result las entidades cuyo rectángulo se solapa con el área dada.
+	 * @return Número de entidades añadidas.
+	 */
+	public int query(float x, float y, float width, float height, Array<LivingEntity> result) {
+		int stamp = nextQuery();
+		int found = 0;
+		for(int cx = cell(x), maxX = cell(x + width); cx <= maxX; cx++) {
+			for(int cy = cell(y), maxY = cell(y + height); cy <= maxY; cy++) {
+				Array<Entry> bucket = buckets.get(key(cx, cy));
+				if(bucket == null) continue;
+				for(int i = 0; i < bucket.size; i++) {
+					Entry entry = bucket.get(i);
+					if(entry.stamp == stamp) continue;
+					entry.stamp = stamp;
+					if(overlaps(entry.entity.getBounds(), x, y, width, height)) {
+						result.add(entry.entity);
+						found++;
+					}
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Añade a result las entidades que contienen el punto dado.
+	 * @return Número de entidades añadidas.
+	 */
+	public int query(float x, float y, Array<LivingEntity> result) {
+		Array<Entry> bucket = buckets.get(key(cell(x), cell(y)));
+		if(bucket == null) return 0;
+		int found = 0;
+		for(int i = 0; i < bucket.size; i++) {
+			Entry entry = bucket.get(i);
+			if(entry.entity.getBounds().contains(x, y)) {
+				result.add(entry.entity);
+				found++;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Devuelve el número de entidades añadidas.
+	 */
+	public int size() {
+		return entries.size;
+	}
+
+	/**
+	 * Quita todas las entidades.
+	 */
+	public void clear() {
+		for(Array<Entry> bucket : buckets.values()) {
+			bucket.clear();
+			bucketPool.free(bucket);
+		}
+		buckets.clear();
+		for(Entry entry : entries.values()) {
+			entry.entity = null;
+			entryPool.free(entry);
+		}
+		entries.clear();
+	}
+
+	private void add(Entry entry) {
+		for(int cx = entry.minX; cx <= entry.maxX; cx++) {
+			for(int cy = entry.minY; cy <= entry.maxY; cy++) {
+				int key = key(cx, cy);
+				Array<Entry> bucket = buckets.get(key);
+				if(bucket == null) {
+					bucket = bucketPool.obtain();
+					buckets.put(key, bucket);
+				}
+				bucket.add(entry);
+			}
+		}
+	}
+
+	private void remove(Entry entry) {
+		for(int cx = entry.minX; cx <= entry.maxX; cx++) {
+			for(int cy = entry.minY; cy <= entry.maxY; cy++) {
+				int key = key(cx, cy);
+				Array<Entry> bucket = buckets.get(key);
+				if(bucket == null) continue;
+				bucket.removeValue(entry, true);
+				if(bucket.size == 0) {
+					buckets.remove(key);
+					bucketPool.free(bucket);
+				}
+			}
+		}
+	}
+
+	private int nextQuery() {
+		if(++query == 0) { // Las marcas volverían a empezar
+			for(Entry entry : entries.values()) {
+				entry.stamp = 0;
+			}
+			query = 1;
+		}
+		return query;
+	}
+
+	private int cell(float position) {
+		return (int) Math.floor(position/cellSize);
+	}
+
+	/**
+	 * Clave de una celda: 16 bits por coordenada.
+	 */
+	private static int key(int cellX, int cellY) {
+		return (cellX << 16) | (cellY & 0xFFFF);
+	}
+
+	/**
+	 * Mismo criterio que Rectangle.overlaps.
+	 */
+	private static boolean overlaps(Rectangle bounds, float x, float y, float width, float height) {
+		return bounds.x < x + width && bounds.x + bounds.width > x
+				&& bounds.y < y + height && bounds.y + bounds.height > y;
+	}
+
+	/**
+	 * Entidad añadida y rango de celdas que ocupa.
+	 */
+	private static class Entry {
+		LivingEntity entity;
+		int minX, minY, maxX, maxY;
+		/** Última consulta en la que se miró */
+		int stamp;
+	}
+}